@@ -0,0 +1,89 @@
+package com.emendes.webflux.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.lang.Nullable;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Registers Jackson Smile and CBOR codecs next to JSON so that internal clients can ask for a compact binary
+ * format with the Accept and Content-Type headers. Both use the same Jackson settings as the JSON codecs.
+ */
+@Configuration
+public class CodecConfig {
+
+  public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+  public static final MediaType APPLICATION_SMILE = MediaType.parseMediaType(APPLICATION_SMILE_VALUE);
+  public static final List<MediaType> BINARY_MEDIA_TYPES = List.of(APPLICATION_SMILE, MediaType.APPLICATION_CBOR);
+
+  @Bean
+  public CodecCustomizer binaryCodecsCustomizer(
+      ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder,
+      ObjectMapper objectMapper) {
+    ObjectMapper smileMapper = objectMapperBuilder.getObject().factory(new SmileFactory()).build();
+    ObjectMapper cborMapper = objectMapperBuilder.getObject().factory(new CBORFactory()).build();
+
+    // The media types must be passed explicitly: without them these constructors fall back to the JSON ones and the
+    // binary codecs would take JSON bodies.
+    // Custom writers come before the default ones, so JSON is registered again ahead of CBOR to stay the answer to
+    // Accept: */*.
+    return configurer -> {
+      configurer.defaultCodecs().jackson2SmileEncoder(new Jackson2SmileEncoder(smileMapper, APPLICATION_SMILE));
+      configurer.defaultCodecs().jackson2SmileDecoder(new Jackson2SmileDecoder(smileMapper, APPLICATION_SMILE));
+      configurer.customCodecs().register(new Jackson2JsonEncoder(objectMapper));
+      configurer.customCodecs().register(new CborEncoder(cborMapper));
+      configurer.customCodecs().register(new Jackson2CborDecoder(cborMapper, MediaType.APPLICATION_CBOR));
+    };
+  }
+
+  /**
+   * Spring's CBOR encoder only implements {@code encodeValue}, while the message writers always call {@code encode}.
+   * A single value is encoded as it is and a stream is collected into one CBOR array, like JSON does with a Flux.
+   */
+  static class CborEncoder extends Jackson2CborEncoder {
+
+    CborEncoder(ObjectMapper cborMapper) {
+      super(cborMapper, MediaType.APPLICATION_CBOR);
+    }
+
+    @Override
+    public Flux<DataBuffer> encode(
+        Publisher<?> inputStream,
+        DataBufferFactory bufferFactory,
+        ResolvableType elementType,
+        @Nullable MimeType mimeType,
+        @Nullable Map<String, Object> hints) {
+      if (inputStream instanceof Mono<?> mono) {
+        return mono.map(value -> encodeValue(value, bufferFactory, elementType, mimeType, hints)).flux();
+      }
+      ResolvableType listType = ResolvableType.forClassWithGenerics(List.class, elementType);
+      return Flux.from(inputStream)
+          .collectList()
+          .map(values -> encodeValue(values, bufferFactory, listType, mimeType, hints))
+          .flux();
+    }
+
+  }
+
+}
@@ -0,0 +1,55 @@
+package com.emendes.webflux.config;
+
+import com.emendes.webflux.replica.ReplicaRoutingConnectionFactory;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.ConnectionFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+@Slf4j
+@Configuration
+public class ConnectionPoolConfig {
+
+  /**
+   * Opens the pool's initial connections before the application starts taking traffic, so the first requests
+   * do not pay for connection setup. A database that is down at startup is logged and not treated as fatal.
+   */
+  @Bean
+  public ApplicationRunner connectionPoolWarmup(
+      ConnectionFactory connectionFactory,
+      @Value("${webflux.r2dbc.pool.warmup-timeout:10s}") Duration timeout) {
+    return args -> connectionPools(connectionFactory).forEach(connectionPool -> connectionPool.warmup()
+        .timeout(timeout)
+        .doOnNext(connections -> log.info("Connection pool warmed up with {} connections", connections))
+        .onErrorResume(throwable -> {
+          log.warn("Connection pool warmup failed: {}", throwable.getMessage());
+          return Mono.empty();
+        })
+        .block());
+  }
+
+  /**
+   * The pools behind the connection factory: itself, the primary and replica pools when reads are routed to
+   * replicas, or none.
+   */
+  public static List<ConnectionPool> connectionPools(ConnectionFactory connectionFactory) {
+    if (connectionFactory instanceof ConnectionPool connectionPool) {
+      return List.of(connectionPool);
+    }
+    if (connectionFactory instanceof ReplicaRoutingConnectionFactory routingConnectionFactory) {
+      return routingConnectionFactory.targets().stream()
+          .filter(ConnectionPool.class::isInstance)
+          .map(ConnectionPool.class::cast)
+          .toList();
+    }
+    return List.of();
+  }
+
+}
@@ -0,0 +1,77 @@
+package com.emendes.webflux.config;
+
+import com.emendes.webflux.repository.AnimeRepository;
+import com.emendes.webflux.repository.UserRepository;
+import com.emendes.webflux.repository.jdbc.BlockingSchedulers;
+import com.emendes.webflux.repository.jdbc.JdbcAnimeRepository;
+import com.emendes.webflux.repository.jdbc.JdbcUserRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.scheduler.Scheduler;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Repositories over blocking JDBC instead of R2DBC, enabled by the {@code jdbc} profile. Services and controllers
+ * stay reactive; each repository call runs on {@link #jdbcScheduler}, one virtual thread per call on Java 21.
+ * The R2DBC connection factory is still used for schema migrations.
+ */
+@Configuration
+@ConditionalOnProperty(name = "webflux.execution.mode", havingValue = "jdbc")
+public class JdbcExecutionConfig {
+
+  @Bean
+  public HikariDataSource dataSource(
+      @Value("${spring.datasource.url}") String url,
+      @Value("${spring.datasource.username}") String username,
+      @Value("${spring.datasource.password}") String password,
+      @Value("${webflux.jdbc.pool.maximum-size:20}") int maximumPoolSize,
+      @Value("${webflux.jdbc.pool.connection-timeout:3s}") Duration connectionTimeout) {
+    HikariDataSource dataSource = DataSourceBuilder.create()
+        .type(HikariDataSource.class)
+        .url(url)
+        .username(username)
+        .password(password)
+        .build();
+    dataSource.setPoolName("webflux-jdbc");
+    dataSource.setMaximumPoolSize(maximumPoolSize);
+    dataSource.setConnectionTimeout(connectionTimeout.toMillis());
+    return dataSource;
+  }
+
+  // With virtual threads the pool size bounds concurrency; the fallback pool only needs as many threads as connections
+  @Bean(destroyMethod = "dispose")
+  public Scheduler jdbcScheduler(@Value("${webflux.jdbc.pool.maximum-size:20}") int maximumPoolSize) {
+    return BlockingSchedulers.create("jdbc", maximumPoolSize);
+  }
+
+  @Bean
+  public NamedParameterJdbcTemplate namedParameterJdbcTemplate(DataSource dataSource) {
+    return new NamedParameterJdbcTemplate(dataSource);
+  }
+
+  // The transaction manager stays private: a second one in the context would make the reactive @Transactional
+  // lookup ambiguous
+  @Bean
+  public AnimeRepository jdbcAnimeRepository(
+      DataSource dataSource,
+      NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+      Scheduler jdbcScheduler) {
+    TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    return new JdbcAnimeRepository(namedParameterJdbcTemplate, transactionTemplate, jdbcScheduler);
+  }
+
+  @Bean
+  public UserRepository jdbcUserRepository(NamedParameterJdbcTemplate namedParameterJdbcTemplate, Scheduler jdbcScheduler) {
+    return new JdbcUserRepository(namedParameterJdbcTemplate, jdbcScheduler);
+  }
+
+}
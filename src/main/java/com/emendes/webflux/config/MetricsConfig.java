@@ -0,0 +1,106 @@
+package com.emendes.webflux.config;
+
+import com.emendes.webflux.metrics.CacheStatsMeterBinder;
+import com.emendes.webflux.metrics.RepositoryMetricsPostProcessor;
+import com.emendes.webflux.service.AnimeCache;
+import com.emendes.webflux.service.AnimeChangeFeed;
+import com.emendes.webflux.service.AnimeReadCoalescer;
+import com.emendes.webflux.service.AnimeSuggestionIndex;
+import com.emendes.webflux.service.DevDojoUserDetailsService;
+import com.emendes.webflux.warmup.WarmupWebFilter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.config.MeterFilter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.metrics.web.reactive.server.WebFluxTagsContributor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Schedulers;
+
+import javax.annotation.PostConstruct;
+
+@Configuration
+public class MetricsConfig {
+
+  @PostConstruct
+  public void enableSchedulerMetrics() {
+    Schedulers.enableMetrics();
+  }
+
+  @Bean
+  public static RepositoryMetricsPostProcessor repositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+    return new RepositoryMetricsPostProcessor(meterRegistry);
+  }
+
+  @Bean
+  public MeterBinder animeCacheMetrics(AnimeCache animeCache) {
+    return new CacheStatsMeterBinder("animes", animeCache::stats);
+  }
+
+  @Bean
+  public MeterBinder animeReadCoalescingMetrics(AnimeCache animeCache, AnimeReadCoalescer animeReadCoalescer) {
+    return registry -> {
+      FunctionCounter.builder("webflux.anime.reads.coalesced", animeCache, AnimeCache::coalescedLoads)
+          .description("Reads that joined an identical read already in flight")
+          .tag("read", "findById")
+          .register(registry);
+      FunctionCounter.builder("webflux.anime.reads.coalesced", animeReadCoalescer, coalescer -> coalescer.catalog().coalesced())
+          .description("Reads that joined an identical read already in flight")
+          .tag("read", "findAll")
+          .register(registry);
+      FunctionCounter.builder("webflux.anime.reads.executed", animeReadCoalescer, coalescer -> coalescer.catalog().executed())
+          .description("Reads that went to the database because no identical read was in flight")
+          .tag("read", "findAll")
+          .register(registry);
+    };
+  }
+
+  @Bean
+  public MeterBinder animeChangeFeedMetrics(AnimeChangeFeed animeChangeFeed) {
+    return registry -> {
+      Gauge.builder("webflux.anime.changes.subscribers", animeChangeFeed, AnimeChangeFeed::subscribers)
+          .description("Clients streaming catalog changes")
+          .register(registry);
+      FunctionCounter.builder("webflux.anime.changes.dropped", animeChangeFeed, AnimeChangeFeed::dropped)
+          .description("Change events dropped because a subscriber fell too far behind")
+          .register(registry);
+    };
+  }
+
+  // Looked up lazily: the index needs the anime repository, which can still be in creation when the registry binds
+  @Bean
+  public MeterBinder animeSuggestionIndexMetrics(ObjectProvider<AnimeSuggestionIndex> animeSuggestionIndex) {
+    return registry -> {
+      Gauge.builder("webflux.anime.suggest.entries", animeSuggestionIndex, index -> index.getObject().size())
+          .description("Names held by the in-memory suggestion index")
+          .register(registry);
+      Gauge.builder("webflux.anime.suggest.memory", animeSuggestionIndex, index -> index.getObject().estimatedBytes())
+          .description("Estimated heap retained by the in-memory suggestion index")
+          .baseUnit("bytes")
+          .register(registry);
+    };
+  }
+
+  // Warm-up requests get a warmup tag that no other request has, and meters carrying it are never registered
+  @Bean
+  public WebFluxTagsContributor warmupTagsContributor() {
+    Tags warmupTags = Tags.of(WarmupWebFilter.WARMUP_TAG, "true");
+    return (exchange, throwable) -> WarmupWebFilter.isWarmup(exchange) ? warmupTags : Tags.empty();
+  }
+
+  @Bean
+  public MeterFilter warmupMeterFilter() {
+    return MeterFilter.deny(id -> id.getTag(WarmupWebFilter.WARMUP_TAG) != null);
+  }
+
+  // Looked up lazily: the registry can be initialized while the user repository, and so this service, is still
+  // being created
+  @Bean
+  public MeterBinder userDetailsCacheMetrics(ObjectProvider<DevDojoUserDetailsService> userDetailsService) {
+    return new CacheStatsMeterBinder("users", () -> userDetailsService.getObject().stats());
+  }
+
+}
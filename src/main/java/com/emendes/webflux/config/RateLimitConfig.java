@@ -0,0 +1,75 @@
+package com.emendes.webflux.config;
+
+import com.emendes.webflux.ratelimit.AdaptiveConcurrencyLimiter;
+import com.emendes.webflux.ratelimit.RateLimitRule;
+import com.emendes.webflux.ratelimit.RateLimiter;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.PoolMetrics;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.IntSupplier;
+
+@Configuration
+@ConditionalOnProperty(name = "webflux.rate-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitConfig {
+
+  @Bean
+  public RateLimiter rateLimiter(
+      ConnectionFactory connectionFactory,
+      ObjectProvider<DataSource> dataSource,
+      MeterRegistry meterRegistry,
+      @Value("${webflux.rate-limit.rules:}") List<String> rules,
+      @Value("${webflux.rate-limit.excluded-paths:}") List<String> excludedPaths,
+      @Value("${webflux.rate-limit.clients.maximum-size:100000}") long maximumClients,
+      @Value("${webflux.rate-limit.clients.idle-ttl:10m}") Duration clientIdleTtl,
+      @Value("${webflux.rate-limit.max-in-flight-per-client:32}") int maxInFlightPerClient,
+      @Value("${webflux.rate-limit.concurrency.min-limit:16}") int minLimit,
+      @Value("${webflux.rate-limit.concurrency.max-limit:512}") int maxLimit,
+      @Value("${webflux.rate-limit.concurrency.max-pending-acquires:20}") int maxPendingAcquires) {
+    IntSupplier pendingAcquires = pendingAcquires(connectionFactory, dataSource.getIfAvailable());
+
+    return new RateLimiter(
+        rules.stream().filter(rule -> !rule.isBlank()).map(RateLimitRule::parse).toList(),
+        excludedPaths.stream()
+            .filter(path -> !path.isBlank())
+            .map(path -> PathPatternParser.defaultInstance.parse(path.trim()))
+            .toList(),
+        maximumClients,
+        clientIdleTtl,
+        maxInFlightPerClient,
+        new AdaptiveConcurrencyLimiter(pendingAcquires, minLimit, maxLimit, maxPendingAcquires),
+        meterRegistry);
+  }
+
+  // Watches the pools that serve repository calls: Hikari in the jdbc execution mode, otherwise the R2DBC pools.
+  // Without a pool there is no acquire queue to watch, and the global cap stays at its maximum.
+  private static IntSupplier pendingAcquires(ConnectionFactory connectionFactory, DataSource dataSource) {
+    if (dataSource instanceof HikariDataSource hikariDataSource) {
+      return () -> {
+        HikariPoolMXBean pool = hikariDataSource.getHikariPoolMXBean();
+        return pool == null ? 0 : pool.getThreadsAwaitingConnection();
+      };
+    }
+    List<ConnectionPool> connectionPools = ConnectionPoolConfig.connectionPools(connectionFactory);
+    return () -> {
+      int pending = 0;
+      for (ConnectionPool connectionPool : connectionPools) {
+        pending += connectionPool.getMetrics().map(PoolMetrics::pendingAcquireSize).orElse(0);
+      }
+      return pending;
+    };
+  }
+
+}
@@ -0,0 +1,98 @@
+package com.emendes.webflux.config;
+
+import com.emendes.webflux.replica.ReplicaRoutingConnectionFactory;
+import com.emendes.webflux.replica.ReplicaRoutingPostProcessor;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.r2dbc.ConnectionPoolMetrics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.properties.PropertyMapper;
+import org.springframework.boot.r2dbc.ConnectionFactoryBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Replaces the auto-configured connection factory with a {@link ReplicaRoutingConnectionFactory}: the primary is
+ * spring.r2dbc.url, the replicas are webflux.r2dbc.replicas.urls, and every target gets its own pool configured
+ * from spring.r2dbc.pool with the spring.r2dbc credentials.
+ */
+@Configuration
+@ConditionalOnProperty(name = "webflux.r2dbc.replicas.enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+  @Bean(destroyMethod = "dispose")
+  public ReplicaRoutingConnectionFactory connectionFactory(
+      R2dbcProperties properties,
+      @Value("${webflux.r2dbc.replicas.urls}") List<String> replicaUrls,
+      @Value("${webflux.r2dbc.replicas.ejection-time:30s}") Duration ejectionTime,
+      @Value("${webflux.r2dbc.replicas.read-your-writes.window:5s}") Duration readYourWritesWindow,
+      @Value("${webflux.r2dbc.replicas.read-your-writes.maximum-users:100000}") long maximumTrackedWriters) {
+    List<String> urls = replicaUrls.stream().map(String::trim).filter(StringUtils::hasText).toList();
+    return new ReplicaRoutingConnectionFactory(
+        pool("primary", properties.getUrl(), properties),
+        IntStream.range(0, urls.size())
+            .<ConnectionFactory>mapToObj(i -> pool("replica-" + i, urls.get(i), properties))
+            .toList(),
+        ejectionTime,
+        readYourWritesWindow,
+        maximumTrackedWriters);
+  }
+
+  @Bean
+  public static ReplicaRoutingPostProcessor replicaRoutingPostProcessor(
+      ObjectProvider<ReplicaRoutingConnectionFactory> connectionFactory) {
+    return new ReplicaRoutingPostProcessor(connectionFactory);
+  }
+
+  // The primary pool is metered by the auto-configuration through Wrapped#unwrap, the replica pools are not
+  @Bean
+  public MeterBinder replicaConnectionPoolMetrics(ReplicaRoutingConnectionFactory connectionFactory) {
+    return registry -> {
+      List<ConnectionFactory> targets = connectionFactory.targets();
+      for (int i = 1; i < targets.size(); i++) {
+        if (targets.get(i) instanceof ConnectionPool connectionPool) {
+          new ConnectionPoolMetrics(connectionPool, "replica-" + (i - 1), Tags.empty()).bindTo(registry);
+        }
+      }
+      Gauge.builder("webflux.r2dbc.replicas.ejected", connectionFactory, ReplicaRoutingConnectionFactory::ejectedReplicas)
+          .description("Replicas currently ejected after failing to hand out a connection")
+          .register(registry);
+    };
+  }
+
+  private static ConnectionPool pool(String name, String url, R2dbcProperties properties) {
+    ConnectionFactoryBuilder builder = ConnectionFactoryBuilder.withUrl(url);
+    if (StringUtils.hasText(properties.getUsername())) {
+      builder.username(properties.getUsername());
+    }
+    if (StringUtils.hasText(properties.getPassword())) {
+      builder.password(properties.getPassword());
+    }
+
+    R2dbcProperties.Pool pool = properties.getPool();
+    ConnectionPoolConfiguration.Builder configuration = ConnectionPoolConfiguration.builder(builder.build())
+        .name(name)
+        .initialSize(pool.getInitialSize())
+        .maxSize(pool.getMaxSize());
+    PropertyMapper map = PropertyMapper.get().alwaysApplyingWhenNonNull();
+    map.from(pool.getMaxIdleTime()).to(configuration::maxIdleTime);
+    map.from(pool.getMaxLifeTime()).to(configuration::maxLifeTime);
+    map.from(pool.getMaxAcquireTime()).to(configuration::maxAcquireTime);
+    map.from(pool.getMaxCreateConnectionTime()).to(configuration::maxCreateConnectionTime);
+    map.from(pool.getValidationQuery()).whenHasText().to(configuration::validationQuery);
+    return new ConnectionPool(configuration.build());
+  }
+
+}
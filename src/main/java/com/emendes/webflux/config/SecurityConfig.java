@@ -1,40 +1,94 @@
 package com.emendes.webflux.config;
 
+import com.emendes.webflux.metrics.CacheStatsMeterBinder;
+import com.emendes.webflux.ratelimit.RateLimitWebFilter;
+import com.emendes.webflux.ratelimit.RateLimiter;
+import com.emendes.webflux.security.BoundedUserDetailsAuthenticationManager;
+import com.emendes.webflux.security.CachingReactiveAuthenticationManager;
+import com.emendes.webflux.security.MeteredReactiveAuthenticationManager;
 import com.emendes.webflux.service.DevDojoUserDetailsService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.http.HttpMethod;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.security.authentication.ReactiveAuthenticationManager;
-import org.springframework.security.authentication.UserDetailsRepositoryReactiveAuthenticationManager;
 import org.springframework.security.config.annotation.method.configuration.EnableReactiveMethodSecurity;
 import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
 import org.springframework.security.config.web.server.ServerHttpSecurity;
 import org.springframework.security.crypto.factory.PasswordEncoderFactories;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.server.SecurityWebFilterChain;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 @EnableWebFluxSecurity
 @EnableReactiveMethodSecurity
 public class SecurityConfig {
 
   @Bean
-  public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+  public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http, ObjectProvider<RateLimiter> rateLimiter) {
     http.csrf().disable()
         .authorizeExchange()
         .pathMatchers(HttpMethod.POST, "/animes/**").hasRole("ADMIN")
         .pathMatchers(HttpMethod.PUT, "/animes/**").hasRole("ADMIN")
         .pathMatchers(HttpMethod.DELETE, "/animes/**").hasRole("ADMIN")
         .pathMatchers(HttpMethod.GET, "/animes/**").hasRole("USER")
+        .pathMatchers(HttpMethod.GET, "/actuator/health/**").permitAll()
+        .pathMatchers("/actuator/**").hasRole("ADMIN")
         .pathMatchers(HttpMethod.GET, "/swagger-ui.html", "/swagger-ui/**","/webjars/**", "/v3/api-docs/**").permitAll()
         .anyExchange().authenticated()
         .and().formLogin()
         .and().httpBasic();
 
+    // After authentication so that limits are per user, before authorization so that rejected requests stay cheap
+    rateLimiter.ifAvailable(limiter -> http.addFilterAfter(
+        new RateLimitWebFilter(limiter), SecurityWebFiltersOrder.SECURITY_CONTEXT_SERVER_WEB_EXCHANGE));
+
     return http.build();
   }
 
   @Bean
-  public ReactiveAuthenticationManager authenticationManager(DevDojoUserDetailsService userDetailsService) {
-    return new UserDetailsRepositoryReactiveAuthenticationManager(userDetailsService);
+  public ReactiveAuthenticationManager authenticationManager(
+      DevDojoUserDetailsService userDetailsService,
+      PasswordEncoder passwordEncoder,
+      Scheduler passwordHashingScheduler,
+      MeterRegistry meterRegistry,
+      @Value("${webflux.security.credentials-cache.maximum-size:10000}") long maximumSize,
+      @Value("${webflux.security.credentials-cache.ttl:30s}") Duration ttl) {
+    BoundedUserDetailsAuthenticationManager delegate =
+        new BoundedUserDetailsAuthenticationManager(userDetailsService, passwordEncoder, passwordHashingScheduler);
+
+    CachingReactiveAuthenticationManager authenticationManager =
+        new CachingReactiveAuthenticationManager(delegate, maximumSize, ttl);
+    userDetailsService.addEvictionListener(authenticationManager::evict);
+    new CacheStatsMeterBinder("credentials", authenticationManager::stats).bindTo(meterRegistry);
+
+    return new MeteredReactiveAuthenticationManager(authenticationManager, meterRegistry);
+  }
+
+  @Bean(destroyMethod = "dispose")
+  public Scheduler passwordHashingScheduler(
+      @Value("${webflux.security.password-hashing.pool-size:4}") int poolSize,
+      @Value("${webflux.security.password-hashing.queue-capacity:256}") int queueCapacity,
+      MeterRegistry meterRegistry) {
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(
+        poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueCapacity),
+        new CustomizableThreadFactory("password-hashing-"),
+        new ThreadPoolExecutor.AbortPolicy());
+
+    // executor.idle is the time a password check waited in the queue, executor.active / executor.pool.size the utilization
+    return Schedulers.fromExecutorService(
+        ExecutorServiceMetrics.monitor(meterRegistry, executor, "password-hashing"), "password-hashing");
   }
 
   @Bean
@@ -0,0 +1,20 @@
+package com.emendes.webflux.config;
+
+import com.emendes.webflux.controller.AnimeChangesWebSocketHandler;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.reactive.handler.SimpleUrlHandlerMapping;
+
+import java.util.Map;
+
+@Configuration
+public class WebSocketConfig {
+
+  // Checked before the annotated controllers, so the handshake is never matched against /animes/** mappings
+  @Bean
+  public HandlerMapping webSocketHandlerMapping(AnimeChangesWebSocketHandler animeChangesWebSocketHandler) {
+    return new SimpleUrlHandlerMapping(Map.of(AnimeChangesWebSocketHandler.PATH, animeChangesWebSocketHandler), -1);
+  }
+
+}
@@ -0,0 +1,58 @@
+package com.emendes.webflux.controller;
+
+import com.emendes.webflux.domain.AnimeChangeEvent;
+import com.emendes.webflux.service.AnimeService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.socket.WebSocketHandler;
+import org.springframework.web.reactive.socket.WebSocketSession;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+
+/**
+ * Sends catalog changes as JSON text messages on {@code /animes/changes/ws}, resuming after the {@code after}
+ * query parameter when given. The stream ends as soon as the client closes the connection.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AnimeChangesWebSocketHandler implements WebSocketHandler {
+
+  public static final String PATH = "/animes/changes/ws";
+
+  private final AnimeService animeService;
+  private final ObjectMapper objectMapper;
+
+  @Override
+  public Mono<Void> handle(WebSocketSession session) {
+    Long after = afterSequence(session.getHandshakeInfo().getUri());
+    log.info("streaming anime changes over websocket after: {}", after);
+
+    Mono<Void> send = session.send(animeService.changes(after)
+        .map(event -> session.textMessage(toJson(event))));
+    return Mono.firstWithSignal(send, session.receive().then());
+  }
+
+  private String toJson(AnimeChangeEvent event) {
+    try {
+      return objectMapper.writeValueAsString(event);
+    } catch (JsonProcessingException exception) {
+      throw new IllegalStateException(exception);
+    }
+  }
+
+  private static Long afterSequence(URI uri) {
+    String after = UriComponentsBuilder.fromUri(uri).build().getQueryParams().getFirst("after");
+    try {
+      return after != null ? Long.valueOf(after) : null;
+    } catch (NumberFormatException exception) {
+      return null;
+    }
+  }
+
+}
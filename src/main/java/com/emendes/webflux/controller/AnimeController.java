@@ -1,7 +1,14 @@
 package com.emendes.webflux.controller;
 
+import com.emendes.webflux.config.CodecConfig;
 import com.emendes.webflux.domain.Anime;
+import com.emendes.webflux.domain.AnimeChangeEvent;
+import com.emendes.webflux.domain.AnimeImportResult;
+import com.emendes.webflux.domain.AnimeSearchHit;
+import com.emendes.webflux.domain.AnimeSuggestion;
+import com.emendes.webflux.service.AnimeImportService;
 import com.emendes.webflux.service.AnimeService;
+import com.emendes.webflux.service.EncodedCatalog;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.enums.SecuritySchemeType;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -9,14 +16,24 @@ import io.swagger.v3.oas.annotations.security.SecurityScheme;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import javax.validation.Valid;
+import java.time.Duration;
 import java.util.List;
+import java.util.function.Function;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -30,7 +47,14 @@ import java.util.List;
 )
 public class AnimeController {
 
+  // One timer for every change subscriber; the comments keep idle connections open through proxies
+  private static final Flux<ServerSentEvent<AnimeChangeEvent>> CHANGE_HEARTBEATS = Flux.interval(Duration.ofSeconds(15))
+      .onBackpressureDrop()
+      .map(tick -> ServerSentEvent.<AnimeChangeEvent>builder().comment("heartbeat").build())
+      .share();
+
   private final AnimeService animeService;
+  private final AnimeImportService animeImportService;
 
   @Operation(
       summary = "List all animes",
@@ -38,9 +62,173 @@ public class AnimeController {
       security = {@SecurityRequirement(name = "Basic Authentication")}
   )
   @GetMapping
-  public Flux<Anime> listAll() {
+  public Mono<ResponseEntity<DataBuffer>> listAll(
+      @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+      @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
     log.info("searching for all animes");
-    return animeService.findAll();
+    return animeService.findCatalogVersion()
+        .flatMap(catalogVersion -> {
+          String etag = EntityTags.ofCatalog(catalogVersion);
+          if (EntityTags.matchesAny(ifNoneMatch, etag)) {
+            return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).<DataBuffer>build());
+          }
+          return animeService.findAllEncoded(catalogVersion)
+              .map(catalog -> catalogResponse(etag, catalog, acceptsGzip(acceptEncoding)));
+        });
+  }
+
+  @Operation(
+      summary = "List all animes in a binary format (Smile or CBOR)",
+      tags = {"Anime"},
+      security = {@SecurityRequirement(name = "Basic Authentication")}
+  )
+  @GetMapping(produces = {CodecConfig.APPLICATION_SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+  public Mono<List<Anime>> listAllBinary() {
+    log.info("searching for all animes in a binary format");
+    return animeService.findAll().collectList();
+  }
+
+  // The cached bytes are wrapped, not copied, and written as they are: no Jackson, no per-request compression.
+  private static ResponseEntity<DataBuffer> catalogResponse(String etag, EncodedCatalog catalog, boolean gzip) {
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+        .eTag(etag)
+        .contentType(MediaType.APPLICATION_JSON)
+        .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    if (gzip) {
+      response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+    }
+    return response.body(DefaultDataBufferFactory.sharedInstance.wrap(gzip ? catalog.gzip() : catalog.json()));
+  }
+
+  private static boolean acceptsGzip(String acceptEncoding) {
+    if (!StringUtils.hasText(acceptEncoding)) {
+      return false;
+    }
+    for (String coding : acceptEncoding.split(",")) {
+      String[] parts = coding.trim().split(";");
+      if (parts[0].trim().equalsIgnoreCase("gzip")) {
+        return parts.length < 2 || !parts[1].trim().matches("q=0(\\.0*)?");
+      }
+    }
+    return false;
+  }
+
+  @Operation(
+      summary = "Stream catalog changes as server-sent events, resuming after Last-Event-ID or the after parameter",
+      tags = {"Anime"},
+      security = {@SecurityRequirement(name = "Basic Authentication")}
+  )
+  @GetMapping(path = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public Flux<ServerSentEvent<AnimeChangeEvent>> changes(
+      @RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId,
+      @RequestParam(name = "after", required = false) Long after) {
+    log.info("streaming anime changes after: {}", lastEventId != null ? lastEventId : after);
+    return animeService.changes(lastEventId != null ? lastEventId : after)
+        .map(event -> ServerSentEvent.builder(event)
+            .id(Long.toString(event.getSequence()))
+            .event(event.getType().name())
+            .build())
+        .mergeWith(CHANGE_HEARTBEATS);
+  }
+
+  @Operation(
+      summary = "List animes page by page (keyset pagination)",
+      tags = {"Anime"},
+      security = {@SecurityRequirement(name = "Basic Authentication")}
+  )
+  @GetMapping(params = "limit")
+  public Mono<ResponseEntity<List<Anime>>> listPage(
+      @RequestParam(name = "afterId", required = false) Integer afterId,
+      @RequestParam(name = "cursor", required = false) String cursor,
+      @RequestParam(name = "limit") int limit) {
+    Integer lastSeenId = cursor != null ? Integer.valueOf(PageCursor.decode(cursor)) : afterId;
+    log.info("searching for animes after id: {}, limit: {}", lastSeenId, limit);
+
+    return animeService.findPage(lastSeenId, limit)
+        .collectList()
+        .map(page -> {
+          ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+          if (!page.isEmpty() && page.size() == AnimeService.pageSize(limit)) {
+            response.header(PageCursor.NEXT_CURSOR_HEADER, PageCursor.encode(page.get(page.size() - 1).getId()));
+          }
+          return response.body(page);
+        });
+  }
+
+  @Operation(
+      summary = "Search animes by name prefix (mode=prefix) or ranked full text (mode=fulltext)",
+      tags = {"Anime"},
+      security = {@SecurityRequirement(name = "Basic Authentication")}
+  )
+  @GetMapping("/search")
+  public Mono<ResponseEntity<List<Anime>>> search(
+      @RequestParam(name = "q") String query,
+      @RequestParam(name = "mode", defaultValue = "prefix") String mode,
+      @RequestParam(name = "cursor", required = false) String cursor,
+      @RequestParam(name = "limit", defaultValue = "20") int limit) {
+    if (!StringUtils.hasText(query)) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Search query must not be blank");
+    }
+    log.info("searching for animes matching: {}, mode: {}, limit: {}", query, mode, limit);
+    PageCursor.Keyset after = cursor != null ? PageCursor.decodeKeyset(cursor) : null;
+    int pageSize = AnimeService.pageSize(limit);
+
+    return switch (mode) {
+      case "prefix" -> animeService
+          .searchByPrefix(query.trim(), after != null ? after.sortKey() : "", after != null ? after.lastId() : 0, limit)
+          .collectList()
+          .map(page -> searchResponse(page,
+              nextCursor(page, pageSize, last -> PageCursor.encode(last.getName(), last.getId()))));
+      case "fulltext" -> animeService
+          .searchFullText(query, after != null ? rank(after) : Float.MAX_VALUE, after != null ? after.lastId() : 0, limit)
+          .collectList()
+          .map(hits -> searchResponse(hits.stream().map(AnimeSearchHit::toAnime).toList(),
+              nextCursor(hits, pageSize, last -> PageCursor.encode(Float.toString(last.getRank()), last.getId()))));
+      default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown search mode: " + mode);
+    };
+  }
+
+  private static <T> String nextCursor(List<T> page, int pageSize, Function<T, String> cursorOf) {
+    return page.size() == pageSize ? cursorOf.apply(page.get(page.size() - 1)) : null;
+  }
+
+  private static ResponseEntity<List<Anime>> searchResponse(List<Anime> page, String nextCursor) {
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+    if (nextCursor != null) {
+      response.header(PageCursor.NEXT_CURSOR_HEADER, nextCursor);
+    }
+    return response.body(page);
+  }
+
+  private static float rank(PageCursor.Keyset keyset) {
+    try {
+      return Float.parseFloat(keyset.sortKey());
+    } catch (NumberFormatException exception) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+    }
+  }
+
+  @Operation(
+      summary = "Suggest anime names starting with the given prefix, from an in-memory index",
+      tags = {"Anime"},
+      security = {@SecurityRequirement(name = "Basic Authentication")}
+  )
+  @GetMapping("/suggest")
+  public Mono<List<AnimeSuggestion>> suggest(
+      @RequestParam(name = "q", defaultValue = "") String prefix,
+      @RequestParam(name = "limit", defaultValue = "10") int limit) {
+    return Mono.fromSupplier(() -> animeService.suggest(prefix, limit));
+  }
+
+  @Operation(
+      summary = "Stream all animes as NDJSON or Server-Sent Events",
+      tags = {"Anime"},
+      security = {@SecurityRequirement(name = "Basic Authentication")}
+  )
+  @GetMapping(produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+  public Flux<Anime> streamAll() {
+    log.info("streaming all animes");
+    return animeService.streamAll();
   }
 
   @Operation(
@@ -49,9 +237,18 @@ public class AnimeController {
       security = {@SecurityRequirement(name = "Basic Authentication")}
   )
   @GetMapping("/{id}")
-  public Mono<Anime> findById(@PathVariable(name = "id") Integer id) {
+  public Mono<ResponseEntity<Anime>> findById(
+      @PathVariable(name = "id") Integer id,
+      @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
     log.info("searching for anime with id: {}", id);
-    return animeService.findById(id);
+    return animeService.findById(id)
+        .map(anime -> {
+          String etag = EntityTags.of(anime);
+          if (EntityTags.matchesAny(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).<Anime>build();
+          }
+          return ResponseEntity.ok().eTag(etag).body(anime);
+        });
   }
 
   @Operation(
@@ -76,6 +273,19 @@ public class AnimeController {
     return animeService.saveAll(animeList);
   }
 
+  @Operation(
+      summary = "Import animes streamed as NDJSON",
+      tags = {"Anime"},
+      security = {@SecurityRequirement(name = "Basic Authentication")}
+  )
+  @PostMapping(
+      value = "/import",
+      consumes = MediaType.APPLICATION_NDJSON_VALUE,
+      produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public Flux<AnimeImportResult> importAnimes(@RequestBody Flux<Anime> animes) {
+    return animeImportService.importAll(animes);
+  }
+
   @Operation(
       summary = "Update anime by id",
       tags = {"Anime"},
@@ -83,8 +293,14 @@ public class AnimeController {
   )
   @PutMapping("/{id}")
   @ResponseStatus(HttpStatus.NO_CONTENT)
-  public Mono<Void> update(@PathVariable(name = "id") int id, @Valid @RequestBody Anime anime) {
-    return animeService.update(anime.withId(id));
+  public Mono<Void> update(
+      @PathVariable(name = "id") int id,
+      @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+      @Valid @RequestBody Anime anime) {
+    if (ifMatch == null) {
+      return animeService.update(anime.withId(id));
+    }
+    return animeService.update(anime.withId(id), EntityTags.expectedVersion(ifMatch));
   }
 
   @Operation(
@@ -95,8 +311,13 @@ public class AnimeController {
   @DeleteMapping("/{id}")
   @ResponseStatus(HttpStatus.NO_CONTENT)
   @PreAuthorize("hasRole('ADMIN')")
-  public Mono<Void> delete(@PathVariable(name = "id") int id) {
-    return animeService.delete(id);
+  public Mono<Void> delete(
+      @PathVariable(name = "id") int id,
+      @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+    if (ifMatch == null) {
+      return animeService.delete(id);
+    }
+    return animeService.delete(id, EntityTags.expectedVersion(ifMatch));
   }
 
 }
@@ -0,0 +1,64 @@
+package com.emendes.webflux.controller;
+
+import com.emendes.webflux.domain.Anime;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Objects;
+
+final class EntityTags {
+
+  private static final String ANY = "*";
+  private static final String WEAK_PREFIX = "W/";
+
+  private EntityTags() {
+  }
+
+  static String of(Anime anime) {
+    return quote(String.valueOf(Objects.requireNonNullElse(anime.getVersion(), 0)));
+  }
+
+  static String ofCatalog(String catalogVersion) {
+    return quote("catalog-" + catalogVersion);
+  }
+
+  /**
+   * Weak comparison of an If-None-Match header, which may hold several comma-separated tags, against an ETag.
+   */
+  static boolean matchesAny(String ifNoneMatch, String etag) {
+    if (ifNoneMatch == null) {
+      return false;
+    }
+    for (String candidate : ifNoneMatch.split(",")) {
+      String tag = candidate.trim();
+      if (tag.equals(ANY) || (tag.startsWith(WEAK_PREFIX) ? tag.substring(WEAK_PREFIX.length()) : tag).equals(etag)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the version named by a single strong If-Match tag, or null for "*". Any other tag can never
+   * match an anime's current ETag, so it fails with 412 right away.
+   */
+  static Integer expectedVersion(String ifMatch) {
+    String tag = ifMatch.trim();
+    if (tag.equals(ANY)) {
+      return null;
+    }
+    if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+      try {
+        return Integer.valueOf(tag.substring(1, tag.length() - 1));
+      } catch (NumberFormatException ignored) {
+        // falls through to 412
+      }
+    }
+    throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "If-Match does not match the anime");
+  }
+
+  private static String quote(String value) {
+    return '"' + value + '"';
+  }
+
+}
@@ -0,0 +1,47 @@
+package com.emendes.webflux.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+final class PageCursor {
+
+  static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+  private PageCursor() {
+  }
+
+  static String encode(int lastId) {
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(String.valueOf(lastId).getBytes(StandardCharsets.UTF_8));
+  }
+
+  static String encode(String sortKey, int lastId) {
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString((lastId + ":" + sortKey).getBytes(StandardCharsets.UTF_8));
+  }
+
+  static Keyset decodeKeyset(String cursor) {
+    try {
+      String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      int separator = value.indexOf(':');
+      return new Keyset(value.substring(separator + 1), Integer.parseInt(value.substring(0, separator)));
+    } catch (IllegalArgumentException | IndexOutOfBoundsException exception) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+    }
+  }
+
+  static int decode(String cursor) {
+    try {
+      return Integer.parseInt(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+    } catch (IllegalArgumentException exception) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+    }
+  }
+
+  record Keyset(String sortKey, int lastId) {
+  }
+
+}
@@ -2,6 +2,7 @@ package com.emendes.webflux.domain;
 
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.relational.core.mapping.Table;
 
 import javax.validation.constraints.NotBlank;
@@ -20,5 +21,7 @@ public class Anime {
   private Integer id;
   @NotBlank(message = "name must not be blank")
   private String name;
+  @Version
+  private Integer version;
 
 }
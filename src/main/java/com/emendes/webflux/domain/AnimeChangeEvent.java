@@ -0,0 +1,29 @@
+package com.emendes.webflux.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+/**
+ * A write to the catalog, numbered in publication order. A RESET event means the events the client asked
+ * for are no longer available, so it has to reload the list and then keep reading from the RESET's sequence.
+ */
+@AllArgsConstructor
+@Getter
+@EqualsAndHashCode
+public class AnimeChangeEvent {
+
+  private final long sequence;
+  private final Type type;
+  private final Integer id;
+  private final String name;
+
+  public static AnimeChangeEvent reset(long sequence) {
+    return new AnimeChangeEvent(sequence, Type.RESET, null, null);
+  }
+
+  public enum Type {
+    CREATED, UPDATED, DELETED, RESET
+  }
+
+}
@@ -0,0 +1,28 @@
+package com.emendes.webflux.domain;
+
+import lombok.*;
+
+import java.util.List;
+
+@AllArgsConstructor
+@Getter
+@Builder
+@EqualsAndHashCode
+public class AnimeImportResult {
+
+  private final long window;
+  private final int inserted;
+  private final List<Failure> failures;
+  private final String error;
+
+  @AllArgsConstructor
+  @Getter
+  @EqualsAndHashCode
+  public static class Failure {
+
+    private final long index;
+    private final String message;
+
+  }
+
+}
@@ -0,0 +1,21 @@
+package com.emendes.webflux.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+@EqualsAndHashCode
+public class AnimeSearchHit {
+
+  private final Integer id;
+  private final String name;
+  private final Integer version;
+  private final Float rank;
+
+  public Anime toAnime() {
+    return new Anime(id, name, version);
+  }
+
+}
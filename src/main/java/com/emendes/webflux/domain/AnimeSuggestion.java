@@ -0,0 +1,15 @@
+package com.emendes.webflux.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+@EqualsAndHashCode
+public class AnimeSuggestion {
+
+  private final int id;
+  private final String name;
+
+}
@@ -9,6 +9,7 @@ import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 
 @AllArgsConstructor
 @NoArgsConstructor
@@ -27,11 +28,30 @@ public class DevDojoUser implements UserDetails {
   private String password;
   private String authorities;
 
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  @With(AccessLevel.NONE)
+  private transient List<GrantedAuthority> grantedAuthorities;
+
+  public void setAuthorities(String authorities) {
+    this.authorities = authorities;
+    this.grantedAuthorities = null;
+  }
+
+  public DevDojoUser withAuthorities(String authorities) {
+    return new DevDojoUser(id, name, username, password, authorities, null);
+  }
+
   @Override
   public Collection<? extends GrantedAuthority> getAuthorities() {
-    return Arrays.stream(authorities.split(","))
-        .map(SimpleGrantedAuthority::new)
-        .toList();
+    List<GrantedAuthority> parsedAuthorities = grantedAuthorities;
+    if (parsedAuthorities == null) {
+      parsedAuthorities = Arrays.stream(authorities.split(","))
+          .<GrantedAuthority>map(SimpleGrantedAuthority::new)
+          .toList();
+      grantedAuthorities = parsedAuthorities;
+    }
+    return parsedAuthorities;
   }
 
   @Override
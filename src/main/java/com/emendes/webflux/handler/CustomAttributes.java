@@ -1,7 +1,10 @@
 package com.emendes.webflux.handler;
 
+import io.r2dbc.spi.R2dbcTimeoutException;
 import org.springframework.boot.web.error.ErrorAttributeOptions;
 import org.springframework.boot.web.reactive.error.DefaultErrorAttributes;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.server.ServerRequest;
 import org.springframework.web.server.ResponseStatusException;
@@ -11,6 +14,8 @@ import java.util.Map;
 @Component
 public class CustomAttributes extends DefaultErrorAttributes {
 
+  static final String RESPONSE_STATUS_DEVELOPER_MESSAGE = "A ResponseStatusException happened";
+
   @Override
   public Map<String, Object> getErrorAttributes(ServerRequest request, ErrorAttributeOptions options) {
     Map<String, Object> errorAttributesMap = super.getErrorAttributes(request, options);
@@ -18,7 +23,14 @@ public class CustomAttributes extends DefaultErrorAttributes {
 
     if (throwable instanceof ResponseStatusException exception) {
       errorAttributesMap.put("message", exception.getMessage());
-      errorAttributesMap.put("developerMessage", "A ResponseStatusException happened");
+      errorAttributesMap.put("developerMessage", RESPONSE_STATUS_DEVELOPER_MESSAGE);
+    }
+
+    if (throwable instanceof DataAccessResourceFailureException || throwable instanceof R2dbcTimeoutException) {
+      errorAttributesMap.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+      errorAttributesMap.put("error", HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase());
+      errorAttributesMap.put("message", "Database is unavailable, try again later");
+      errorAttributesMap.put("developerMessage", "No database connection could be acquired in time");
     }
 
     return errorAttributesMap;
@@ -0,0 +1,70 @@
+package com.emendes.webflux.handler;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * The JSON error body of an {@link ExpectedResponseStatusException}, with the fields and field order that
+ * {@link CustomAttributes} produces. Everything but the timestamp, path and request id is encoded once.
+ */
+final class ErrorBodyTemplate {
+
+  // Same format as Jackson's default for java.util.Date
+  private static final DateTimeFormatter TIMESTAMP_FORMAT =
+      DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH:mm:ss.SSSxxx").withZone(ZoneOffset.UTC);
+
+  private static final byte[] TIMESTAMP_PREFIX = ascii("{\"timestamp\":\"");
+  private static final byte[] PATH_PREFIX = ascii("\",\"path\":\"");
+
+  private final byte[] requestIdPrefix;
+  private final byte[] suffix;
+
+  private ErrorBodyTemplate(byte[] requestIdPrefix, byte[] suffix) {
+    this.requestIdPrefix = requestIdPrefix;
+    this.suffix = suffix;
+  }
+
+  static ErrorBodyTemplate of(ResponseStatusException exception) {
+    String requestIdPrefix = "\",\"status\":" + exception.getRawStatusCode()
+        + ",\"error\":\"" + escape(exception.getStatus().getReasonPhrase())
+        + "\",\"requestId\":\"";
+    String suffix = "\",\"message\":\"" + escape(exception.getMessage())
+        + "\",\"developerMessage\":\"" + escape(CustomAttributes.RESPONSE_STATUS_DEVELOPER_MESSAGE)
+        + "\"}";
+    return new ErrorBodyTemplate(
+        requestIdPrefix.getBytes(StandardCharsets.UTF_8), suffix.getBytes(StandardCharsets.UTF_8));
+  }
+
+  DataBuffer write(DataBufferFactory bufferFactory, Instant timestamp, String path, String requestId) {
+    byte[] timestampBytes = ascii(TIMESTAMP_FORMAT.format(timestamp));
+    byte[] pathBytes = JsonStringEncoder.getInstance().quoteAsUTF8(path);
+    byte[] requestIdBytes = JsonStringEncoder.getInstance().quoteAsUTF8(requestId);
+
+    int size = TIMESTAMP_PREFIX.length + timestampBytes.length + PATH_PREFIX.length + pathBytes.length
+        + requestIdPrefix.length + requestIdBytes.length + suffix.length;
+    return bufferFactory.allocateBuffer(size)
+        .write(TIMESTAMP_PREFIX)
+        .write(timestampBytes)
+        .write(PATH_PREFIX)
+        .write(pathBytes)
+        .write(requestIdPrefix)
+        .write(requestIdBytes)
+        .write(suffix);
+  }
+
+  private static String escape(String value) {
+    return new String(JsonStringEncoder.getInstance().quoteAsString(value));
+  }
+
+  private static byte[] ascii(String value) {
+    return value.getBytes(StandardCharsets.US_ASCII);
+  }
+
+}
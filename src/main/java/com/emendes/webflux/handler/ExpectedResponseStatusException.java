@@ -0,0 +1,22 @@
+package com.emendes.webflux.handler;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * An expected domain error, such as a missing anime, that is part of normal traffic. It has no stack trace, and
+ * {@link GlobalExceptionHandler} answers it with a JSON body templated once per subclass, so every instance of a
+ * subclass must carry the same status and reason.
+ */
+public abstract class ExpectedResponseStatusException extends ResponseStatusException {
+
+  protected ExpectedResponseStatusException(HttpStatus status, String reason) {
+    super(status, reason);
+  }
+
+  @Override
+  public synchronized Throwable fillInStackTrace() {
+    return this;
+  }
+
+}
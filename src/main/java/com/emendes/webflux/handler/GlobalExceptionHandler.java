@@ -1,26 +1,36 @@
 package com.emendes.webflux.handler;
 
+import com.emendes.webflux.config.CodecConfig;
 import org.springframework.boot.autoconfigure.web.WebProperties;
 import org.springframework.boot.autoconfigure.web.reactive.error.AbstractErrorWebExceptionHandler;
 import org.springframework.boot.web.error.ErrorAttributeOptions;
 import org.springframework.boot.web.reactive.error.ErrorAttributes;
 import org.springframework.context.ApplicationContext;
 import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.codec.ServerCodecConfigurer;
 import org.springframework.stereotype.Component;
-import org.springframework.util.StringUtils;
 import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.server.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
+import java.time.Instant;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Order(-2)
 @Component
 public class GlobalExceptionHandler extends AbstractErrorWebExceptionHandler {
 
+  private static final String RETRY_AFTER_SECONDS = "1";
+
+  private final Map<Class<?>, ErrorBodyTemplate> bodyTemplates = new ConcurrentHashMap<>();
+
   public GlobalExceptionHandler(
       ErrorAttributes errorAttributes,
       WebProperties.Resources resources,
@@ -36,20 +46,51 @@ public class GlobalExceptionHandler extends AbstractErrorWebExceptionHandler {
   }
 
   private Mono<ServerResponse> formatErrorResponse(ServerRequest request) {
-    String query = request.uri().getQuery();
-    ErrorAttributeOptions errorAttr = isTraceEnabled(query) ?
+    boolean traceEnabled = isTraceEnabled(request);
+    MediaType contentType = errorContentType(request);
+    if (!traceEnabled && MediaType.APPLICATION_JSON.equals(contentType)
+        && getError(request) instanceof ExpectedResponseStatusException exception) {
+      return expectedErrorResponse(request, exception);
+    }
+
+    ErrorAttributeOptions errorAttr = traceEnabled ?
         ErrorAttributeOptions.of(ErrorAttributeOptions.Include.STACK_TRACE) : ErrorAttributeOptions.defaults();
 
     Map<String, Object> errorAttributesMap = getErrorAttributes(request, errorAttr);
     int status = (int) Optional.ofNullable(errorAttributesMap.get("status")).orElse(500);
 
     return ServerResponse.status(status)
-        .contentType(MediaType.APPLICATION_JSON)
+        .headers(headers -> {
+          if (status == HttpStatus.SERVICE_UNAVAILABLE.value()) {
+            headers.set(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+          }
+          if (getError(request) instanceof ResponseStatusException exception) {
+            headers.putAll(exception.getResponseHeaders());
+          }
+        })
+        .contentType(contentType)
         .body(BodyInserters.fromValue(errorAttributesMap));
   }
 
-  private boolean isTraceEnabled(String query) {
-    return query != null && query.contains("trace=true");
+  // Expected errors skip the attribute map and the JSON encoder: their body is a template with three variables
+  private Mono<ServerResponse> expectedErrorResponse(ServerRequest request, ExpectedResponseStatusException exception) {
+    ErrorBodyTemplate bodyTemplate = bodyTemplates.computeIfAbsent(
+        exception.getClass(), type -> ErrorBodyTemplate.of(exception));
+    ServerWebExchange exchange = request.exchange();
+
+    return ServerResponse.status(exception.getRawStatusCode())
+        .contentType(MediaType.APPLICATION_JSON)
+        .body(BodyInserters.fromDataBuffers(Mono.fromSupplier(() -> bodyTemplate.write(
+            exchange.getResponse().bufferFactory(), Instant.now(), request.path(), exchange.getRequest().getId()))));
+  }
+
+  // Clients that asked for a binary format get their errors in it too; everyone else gets JSON.
+  private MediaType errorContentType(ServerRequest request) {
+    return request.headers().accept().stream()
+        .filter(accepted -> CodecConfig.BINARY_MEDIA_TYPES.stream().anyMatch(accepted::equalsTypeAndSubtype))
+        .findFirst()
+        .map(accepted -> new MediaType(accepted.getType(), accepted.getSubtype()))
+        .orElse(MediaType.APPLICATION_JSON);
   }
 
 }
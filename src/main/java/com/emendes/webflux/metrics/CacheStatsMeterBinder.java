@@ -0,0 +1,59 @@
+package com.emendes.webflux.metrics;
+
+import com.emendes.webflux.warmup.WarmupCompletedEvent;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.ApplicationListener;
+
+import java.util.function.Supplier;
+
+/**
+ * Publishes Caffeine statistics with the same meter names as Micrometer's CaffeineCacheMetrics, for caches
+ * that are wrapped by a component and only expose their {@link CacheStats}.
+ * <p>
+ * Caffeine counts hits and misses itself, out of reach of the warm-up mark in the Reactor context, so what was
+ * counted until the warm-up completed is subtracted instead.
+ */
+public class CacheStatsMeterBinder implements MeterBinder, ApplicationListener<WarmupCompletedEvent> {
+
+  private final String cacheName;
+  private final Supplier<CacheStats> stats;
+  private volatile CacheStats warmupStats = CacheStats.empty();
+
+  public CacheStatsMeterBinder(String cacheName, Supplier<CacheStats> stats) {
+    this.cacheName = cacheName;
+    this.stats = stats;
+  }
+
+  @Override
+  public void onApplicationEvent(WarmupCompletedEvent event) {
+    warmupStats = stats.get();
+  }
+
+  public CacheStats stats() {
+    return stats.get().minus(warmupStats);
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder("cache.gets", this, binder -> binder.stats().hitCount())
+        .tag("cache", cacheName)
+        .tag("result", "hit")
+        .description("The number of times cache lookup methods have returned a cached value.")
+        .register(registry);
+
+    FunctionCounter.builder("cache.gets", this, binder -> binder.stats().missCount())
+        .tag("cache", cacheName)
+        .tag("result", "miss")
+        .description("The number of times cache lookup methods have returned an uncached value.")
+        .register(registry);
+
+    FunctionCounter.builder("cache.evictions", this, binder -> binder.stats().evictionCount())
+        .tag("cache", cacheName)
+        .description("The number of times the cache was evicted.")
+        .register(registry);
+  }
+
+}
@@ -0,0 +1,84 @@
+package com.emendes.webflux.metrics;
+
+import com.emendes.webflux.warmup.WarmupWebFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times reactive repository methods from subscription to termination, which is when the query actually runs,
+ * instead of timing the method call that only assembles the publisher. Queries made for warm-up requests are not
+ * timed.
+ */
+public class ReactiveRepositoryMetricsInterceptor implements MethodInterceptor {
+
+  static final String METRIC_NAME = "spring.data.repository.invocations";
+
+  private final ObjectProvider<MeterRegistry> meterRegistry;
+  private final String repository;
+  private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+  public ReactiveRepositoryMetricsInterceptor(ObjectProvider<MeterRegistry> meterRegistry, String repository) {
+    this.meterRegistry = meterRegistry;
+    this.repository = repository;
+  }
+
+  @Override
+  public Object invoke(MethodInvocation invocation) throws Throwable {
+    Object result = invocation.proceed();
+    String method = invocation.getMethod().getName();
+
+    if (result instanceof Mono<?> mono) {
+      return timed(method, mono);
+    }
+    if (result instanceof Flux<?> flux) {
+      return timed(method, flux);
+    }
+    return result;
+  }
+
+  private <T> Mono<T> timed(String method, Mono<T> mono) {
+    return Mono.deferContextual(context -> {
+      if (WarmupWebFilter.isWarmup(context)) {
+        return mono;
+      }
+      long start = System.nanoTime();
+      return mono.doFinally(signal -> record(method, signal, start));
+    });
+  }
+
+  private <T> Flux<T> timed(String method, Flux<T> flux) {
+    return Flux.deferContextual(context -> {
+      if (WarmupWebFilter.isWarmup(context)) {
+        return flux;
+      }
+      long start = System.nanoTime();
+      return flux.doFinally(signal -> record(method, signal, start));
+    });
+  }
+
+  private void record(String method, SignalType signal, long start) {
+    String state = switch (signal) {
+      case ON_COMPLETE -> "SUCCESS";
+      case ON_ERROR -> "ERROR";
+      default -> "CANCELED";
+    };
+
+    timers.computeIfAbsent(method + ':' + state, key -> Timer.builder(METRIC_NAME)
+            .tag("repository", repository)
+            .tag("method", method)
+            .tag("state", state)
+            .register(meterRegistry.getObject()))
+        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+  }
+
+}
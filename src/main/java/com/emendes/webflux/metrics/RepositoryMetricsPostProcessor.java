@@ -0,0 +1,30 @@
+package com.emendes.webflux.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+/**
+ * Adds {@link ReactiveRepositoryMetricsInterceptor} to every Spring Data repository proxy.
+ */
+public class RepositoryMetricsPostProcessor implements BeanPostProcessor {
+
+  private final ObjectProvider<MeterRegistry> meterRegistry;
+
+  public RepositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  public Object postProcessBeforeInitialization(Object bean, String beanName) {
+    if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> repositoryFactoryBean) {
+      repositoryFactoryBean.addRepositoryFactoryCustomizer(repositoryFactory ->
+          repositoryFactory.addRepositoryProxyPostProcessor((proxyFactory, repositoryInformation) ->
+              proxyFactory.addAdvice(new ReactiveRepositoryMetricsInterceptor(
+                  meterRegistry, repositoryInformation.getRepositoryInterface().getSimpleName()))));
+    }
+    return bean;
+  }
+
+}
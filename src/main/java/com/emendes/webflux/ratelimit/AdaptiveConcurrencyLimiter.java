@@ -0,0 +1,74 @@
+package com.emendes.webflux.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+
+/**
+ * Caps the requests in flight across all clients. The cap shrinks by a quarter (at most every 100ms) while more
+ * than {@code maxPendingAcquires} callers wait for a database connection, and grows back by one per completed
+ * request once nobody is waiting.
+ */
+public final class AdaptiveConcurrencyLimiter {
+
+  private static final long DECREASE_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+  private final IntSupplier pendingAcquires;
+  private final int minLimit;
+  private final int maxLimit;
+  private final int maxPendingAcquires;
+  private final AtomicInteger limit;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicLong lastDecrease = new AtomicLong(System.nanoTime() - DECREASE_INTERVAL_NANOS);
+
+  public AdaptiveConcurrencyLimiter(IntSupplier pendingAcquires, int minLimit, int maxLimit, int maxPendingAcquires) {
+    this.pendingAcquires = pendingAcquires;
+    this.minLimit = Math.max(minLimit, 1);
+    this.maxLimit = Math.max(maxLimit, this.minLimit);
+    this.maxPendingAcquires = maxPendingAcquires;
+    this.limit = new AtomicInteger(this.maxLimit);
+  }
+
+  public boolean tryAcquire() {
+    if (pendingAcquires.getAsInt() > maxPendingAcquires) {
+      decrease();
+    }
+    for (;;) {
+      int current = inFlight.get();
+      if (current >= limit.get()) {
+        return false;
+      }
+      if (inFlight.compareAndSet(current, current + 1)) {
+        return true;
+      }
+    }
+  }
+
+  public void release() {
+    inFlight.decrementAndGet();
+    int pending = pendingAcquires.getAsInt();
+    if (pending > maxPendingAcquires) {
+      decrease();
+    } else if (pending == 0 && limit.get() < maxLimit) {
+      limit.updateAndGet(current -> Math.min(current + 1, maxLimit));
+    }
+  }
+
+  public int limit() {
+    return limit.get();
+  }
+
+  public int inFlight() {
+    return inFlight.get();
+  }
+
+  private void decrease() {
+    long now = System.nanoTime();
+    long last = lastDecrease.get();
+    if (now - last >= DECREASE_INTERVAL_NANOS && lastDecrease.compareAndSet(last, now)) {
+      limit.updateAndGet(current -> Math.max(current - current / 4, minLimit));
+    }
+  }
+
+}
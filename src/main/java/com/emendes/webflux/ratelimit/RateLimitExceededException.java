@@ -0,0 +1,32 @@
+package com.emendes.webflux.ratelimit;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * A request refused by the {@link RateLimiter}, carrying the Retry-After the client should honour.
+ */
+public class RateLimitExceededException extends ResponseStatusException {
+
+  private final long retryAfterSeconds;
+
+  public RateLimitExceededException(HttpStatus status, String reason, long retryAfterSeconds) {
+    super(status, reason);
+    this.retryAfterSeconds = retryAfterSeconds;
+  }
+
+  @Override
+  public HttpHeaders getResponseHeaders() {
+    HttpHeaders headers = new HttpHeaders();
+    headers.set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+    return headers;
+  }
+
+  // Rejections are expected under load, a stack trace per rejected request would only cost CPU
+  @Override
+  public synchronized Throwable fillInStackTrace() {
+    return this;
+  }
+
+}
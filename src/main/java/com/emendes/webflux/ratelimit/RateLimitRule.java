@@ -0,0 +1,45 @@
+package com.emendes.webflux.ratelimit;
+
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.time.Duration;
+
+/**
+ * A token bucket limit for one route, written as {@code METHOD /path/pattern=capacity/period}, e.g.
+ * {@code POST /animes/batch=10/5s} for bursts of 10 requests refilled at 10 per 5 seconds. {@code *} matches
+ * any method.
+ */
+public record RateLimitRule(String name, HttpMethod method, PathPattern pathPattern, int capacity, Duration period) {
+
+  public static RateLimitRule parse(String rule) {
+    String trimmed = rule.trim();
+    int equals = trimmed.lastIndexOf('=');
+    String[] route = trimmed.substring(0, Math.max(equals, 0)).trim().split("\\s+");
+    String[] limit = trimmed.substring(equals + 1).split("/");
+    if (equals < 0 || route.length != 2 || limit.length != 2) {
+      throw new IllegalArgumentException("Invalid rate limit rule '" + rule + "', expected METHOD /path=capacity/period");
+    }
+
+    HttpMethod method = route[0].equals("*") ? null : HttpMethod.resolve(route[0].toUpperCase());
+    if (method == null && !route[0].equals("*")) {
+      throw new IllegalArgumentException("Invalid HTTP method in rate limit rule '" + rule + "'");
+    }
+    int capacity = Integer.parseInt(limit[0].trim());
+    Duration period = DurationStyle.detectAndParse(limit[1].trim());
+    if (capacity < 1 || period.isZero() || period.isNegative()) {
+      throw new IllegalArgumentException("Rate limit rule '" + rule + "' must allow at least one request per period");
+    }
+
+    return new RateLimitRule(route[0] + " " + route[1], method, PathPatternParser.defaultInstance.parse(route[1]),
+        capacity, period);
+  }
+
+  public boolean matches(HttpMethod requestMethod, PathContainer path) {
+    return (method == null || method == requestMethod) && pathPattern.matches(path);
+  }
+
+}
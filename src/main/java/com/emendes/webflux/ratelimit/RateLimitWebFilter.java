@@ -0,0 +1,48 @@
+package com.emendes.webflux.ratelimit;
+
+import com.emendes.webflux.warmup.WarmupWebFilter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.security.Principal;
+
+/**
+ * Applies the {@link RateLimiter} to each exchange, keyed by the authenticated username or else the client
+ * address. It runs inside the security filter chain, so it is not registered as a bean: a WebFilter bean
+ * would also be added to the main filter chain and run twice.
+ */
+@RequiredArgsConstructor
+public class RateLimitWebFilter implements WebFilter {
+
+  private final RateLimiter rateLimiter;
+
+  @Override
+  public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+    if (WarmupWebFilter.isWarmup(exchange)) {
+      return chain.filter(exchange);
+    }
+    ServerHttpRequest request = exchange.getRequest();
+    return exchange.getPrincipal()
+        .map(Principal::getName)
+        .defaultIfEmpty(remoteAddress(request))
+        .flatMap(client -> {
+          RateLimiter.Permit permit =
+              rateLimiter.acquire(request.getMethod(), request.getPath().pathWithinApplication(), client);
+          return chain.filter(exchange).doFinally(signal -> permit.release());
+        });
+  }
+
+  private static String remoteAddress(ServerHttpRequest request) {
+    InetSocketAddress remoteAddress = request.getRemoteAddress();
+    if (remoteAddress == null) {
+      return "unknown";
+    }
+    return remoteAddress.getAddress() != null ? remoteAddress.getAddress().getHostAddress() : remoteAddress.getHostString();
+  }
+
+}
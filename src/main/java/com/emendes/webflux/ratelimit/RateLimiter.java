@@ -0,0 +1,154 @@
+package com.emendes.webflux.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Admits requests to rate limited routes. In order, a request must get a token from its client's bucket for the
+ * first matching rule (429), stay under the per-client in-flight cap (429) and under the adaptive global cap
+ * (503). Requests that match no rule, or an excluded path such as a long-lived stream, are not limited.
+ */
+public class RateLimiter {
+
+  private static final Permit UNLIMITED = () -> {
+  };
+
+  private final List<PathPattern> excludedPaths;
+  private final List<Route> routes;
+  private final Cache<String, ClientState> clients;
+  private final int maxInFlightPerClient;
+  private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+  public RateLimiter(
+      List<RateLimitRule> rules,
+      List<PathPattern> excludedPaths,
+      long maximumClients,
+      Duration clientIdleTtl,
+      int maxInFlightPerClient,
+      AdaptiveConcurrencyLimiter concurrencyLimiter,
+      MeterRegistry meterRegistry) {
+    this.excludedPaths = excludedPaths;
+    this.routes = rules.stream().map(rule -> new Route(rule, meterRegistry)).toList();
+    this.clients = Caffeine.newBuilder()
+        .maximumSize(maximumClients)
+        .expireAfterAccess(clientIdleTtl)
+        .build();
+    this.maxInFlightPerClient = maxInFlightPerClient;
+    this.concurrencyLimiter = concurrencyLimiter;
+
+    Gauge.builder("webflux.ratelimit.concurrency.limit", concurrencyLimiter, AdaptiveConcurrencyLimiter::limit)
+        .description("Current adaptive cap on rate limited requests in flight")
+        .register(meterRegistry);
+    Gauge.builder("webflux.ratelimit.concurrency.in-flight", concurrencyLimiter, AdaptiveConcurrencyLimiter::inFlight)
+        .description("Rate limited requests in flight")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Admits a request or throws {@link RateLimitExceededException}. The returned permit must be released once
+   * the exchange completes.
+   */
+  public Permit acquire(HttpMethod method, PathContainer path, String client) {
+    int index = indexOf(method, path);
+    if (index < 0) {
+      return UNLIMITED;
+    }
+    Route route = routes.get(index);
+    ClientState state = clients.get(client, key -> new ClientState(routes.size()));
+
+    long waitNanos = state.bucket(index, route.rule()).tryAcquire(System.nanoTime());
+    if (waitNanos > 0) {
+      route.rateLimited().increment();
+      throw new RateLimitExceededException(HttpStatus.TOO_MANY_REQUESTS, "Rate limit exceeded",
+          Math.max(TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1), 1));
+    }
+
+    if (state.inFlight().incrementAndGet() > maxInFlightPerClient) {
+      state.inFlight().decrementAndGet();
+      route.clientConcurrency().increment();
+      throw new RateLimitExceededException(HttpStatus.TOO_MANY_REQUESTS, "Too many concurrent requests", 1);
+    }
+
+    if (!concurrencyLimiter.tryAcquire()) {
+      state.inFlight().decrementAndGet();
+      route.overloaded().increment();
+      throw new RateLimitExceededException(HttpStatus.SERVICE_UNAVAILABLE, "Server is overloaded, try again later", 1);
+    }
+
+    return () -> {
+      state.inFlight().decrementAndGet();
+      concurrencyLimiter.release();
+    };
+  }
+
+  private int indexOf(HttpMethod method, PathContainer path) {
+    for (PathPattern excludedPath : excludedPaths) {
+      if (excludedPath.matches(path)) {
+        return -1;
+      }
+    }
+    for (int i = 0; i < routes.size(); i++) {
+      if (routes.get(i).rule().matches(method, path)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  @FunctionalInterface
+  public interface Permit {
+
+    void release();
+
+  }
+
+  private record Route(RateLimitRule rule, Counter rateLimited, Counter clientConcurrency, Counter overloaded) {
+
+    Route(RateLimitRule rule, MeterRegistry meterRegistry) {
+      this(rule,
+          rejections(meterRegistry, rule, "rate_limited"),
+          rejections(meterRegistry, rule, "client_concurrency"),
+          rejections(meterRegistry, rule, "overloaded"));
+    }
+
+    private static Counter rejections(MeterRegistry meterRegistry, RateLimitRule rule, String reason) {
+      return Counter.builder("webflux.ratelimit.rejections")
+          .description("Requests refused by the rate limiter")
+          .tag("route", rule.name())
+          .tag("reason", reason)
+          .register(meterRegistry);
+    }
+
+  }
+
+  private record ClientState(AtomicInteger inFlight, AtomicReferenceArray<TokenBucket> buckets) {
+
+    ClientState(int routes) {
+      this(new AtomicInteger(), new AtomicReferenceArray<>(routes));
+    }
+
+    TokenBucket bucket(int index, RateLimitRule rule) {
+      TokenBucket bucket = buckets.get(index);
+      if (bucket == null) {
+        buckets.compareAndSet(index, null, new TokenBucket(rule.capacity(), rule.period()));
+        bucket = buckets.get(index);
+      }
+      return bucket;
+    }
+
+  }
+
+}
@@ -0,0 +1,40 @@
+package com.emendes.webflux.ratelimit;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket kept as a single theoretical arrival time (GCRA): taking a token pushes that time one
+ * emission interval ahead, and a request is refused when it would land more than one period in the future.
+ */
+final class TokenBucket {
+
+  private final long emissionIntervalNanos;
+  private final long periodNanos;
+  private final AtomicLong theoreticalArrival = new AtomicLong(Long.MIN_VALUE);
+
+  TokenBucket(int capacity, Duration period) {
+    this.periodNanos = period.toNanos();
+    this.emissionIntervalNanos = Math.max(periodNanos / capacity, 1);
+  }
+
+  /**
+   * Takes a token if one is available.
+   *
+   * @return 0 when a token was taken, otherwise the nanoseconds until the next token
+   */
+  long tryAcquire(long nowNanos) {
+    for (;;) {
+      long arrival = theoreticalArrival.get();
+      long next = Math.max(arrival, nowNanos) + emissionIntervalNanos;
+      long waitNanos = next - nowNanos - periodNanos;
+      if (waitNanos > 0) {
+        return waitNanos;
+      }
+      if (theoreticalArrival.compareAndSet(arrival, next)) {
+        return 0;
+      }
+    }
+  }
+
+}
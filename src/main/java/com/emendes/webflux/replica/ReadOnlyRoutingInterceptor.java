@@ -0,0 +1,48 @@
+package com.emendes.webflux.replica;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Sends the read methods of a reactive repository (find*, search*, count*, exists*) to the replicas and tracks the
+ * other methods as writes for read-your-writes.
+ */
+public class ReadOnlyRoutingInterceptor implements MethodInterceptor {
+
+  private static final List<String> READ_PREFIXES = List.of("find", "search", "count", "exists");
+
+  private final ObjectProvider<ReplicaRoutingConnectionFactory> connectionFactory;
+
+  public ReadOnlyRoutingInterceptor(ObjectProvider<ReplicaRoutingConnectionFactory> connectionFactory) {
+    this.connectionFactory = connectionFactory;
+  }
+
+  @Override
+  public Object invoke(MethodInvocation invocation) throws Throwable {
+    Object result = invocation.proceed();
+    boolean read = isRead(invocation.getMethod().getName());
+
+    if (result instanceof Mono<?> mono) {
+      return read ? ReplicaRoutingConnectionFactory.readOnly(mono) : connectionFactory.getObject().trackWrites(mono);
+    }
+    if (result instanceof Flux<?> flux) {
+      return read ? ReplicaRoutingConnectionFactory.readOnly(flux) : connectionFactory.getObject().trackWrites(flux);
+    }
+    return result;
+  }
+
+  private static boolean isRead(String method) {
+    for (String prefix : READ_PREFIXES) {
+      if (method.startsWith(prefix)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+}
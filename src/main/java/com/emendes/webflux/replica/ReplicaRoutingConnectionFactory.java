@@ -0,0 +1,203 @@
+package com.emendes.webflux.replica;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Wrapped;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out primary connections, except to publishers marked with {@link #readOnly(Mono)}, which get a replica
+ * connection picked round robin. A replica that fails to hand out a connection is ejected for the ejection time and
+ * the next one is tried, then the primary.
+ * <p>
+ * Transactions stay on the primary: the transaction manager opens its connection outside any read-only publisher,
+ * and statements inside the transaction reuse that connection. With a read-your-writes window, a user who wrote
+ * through {@link #trackWrites(Mono)} reads from the primary until the window has passed, so replica lag never
+ * hides their own changes.
+ * <p>
+ * Reads that fill a cache shared by every user are marked with {@link #onPrimary(Mono)} instead: they run after
+ * local writes, and a lagging replica would keep a stale value in the cache for everyone.
+ */
+@Slf4j
+public class ReplicaRoutingConnectionFactory implements ConnectionFactory, Wrapped<ConnectionFactory>, Disposable {
+
+  private static final String READ_ONLY = ReplicaRoutingConnectionFactory.class.getName() + ".READ_ONLY";
+  private static final Context READ_ONLY_CONTEXT = Context.of(READ_ONLY, Boolean.TRUE);
+  private static final String PRIMARY = ReplicaRoutingConnectionFactory.class.getName() + ".PRIMARY";
+  private static final Context PRIMARY_CONTEXT = Context.of(PRIMARY, Boolean.TRUE);
+  private static final String ANONYMOUS = "";
+
+  private final ConnectionFactory primary;
+  private final List<Replica> replicas;
+  private final long ejectionNanos;
+  private final Cache<String, Boolean> recentWriters;
+  private final AtomicInteger nextReplica = new AtomicInteger();
+
+  /**
+   * @param readYourWritesWindow how long a user's reads stay on the primary after a write, zero to disable
+   */
+  public ReplicaRoutingConnectionFactory(
+      ConnectionFactory primary,
+      List<ConnectionFactory> replicas,
+      Duration ejectionTime,
+      Duration readYourWritesWindow,
+      long maximumTrackedWriters) {
+    this.primary = primary;
+    this.replicas = replicas.stream().map(Replica::new).toList();
+    this.ejectionNanos = ejectionTime.toNanos();
+    this.recentWriters = readYourWritesWindow.isZero() ? null : Caffeine.newBuilder()
+        .expireAfterWrite(readYourWritesWindow)
+        .maximumSize(maximumTrackedWriters)
+        .build();
+  }
+
+  public static <T> Mono<T> readOnly(Mono<T> mono) {
+    return mono.contextWrite(READ_ONLY_CONTEXT);
+  }
+
+  public static <T> Flux<T> readOnly(Flux<T> flux) {
+    return flux.contextWrite(READ_ONLY_CONTEXT);
+  }
+
+  /**
+   * Keeps the publisher on the primary even if it is, or contains, a read-only publisher.
+   */
+  public static <T> Mono<T> onPrimary(Mono<T> mono) {
+    return mono.contextWrite(PRIMARY_CONTEXT);
+  }
+
+  public static <T> Flux<T> onPrimary(Flux<T> flux) {
+    return flux.contextWrite(PRIMARY_CONTEXT);
+  }
+
+  /**
+   * Starts the current user's read-your-writes window when the write completes.
+   */
+  public <T> Mono<T> trackWrites(Mono<T> write) {
+    if (recentWriters == null) {
+      return write;
+    }
+    return currentUser().flatMap(user -> write.doOnSuccess(result -> recordWrite(user)));
+  }
+
+  public <T> Flux<T> trackWrites(Flux<T> write) {
+    if (recentWriters == null) {
+      return write;
+    }
+    return currentUser().flatMapMany(user -> write.doOnComplete(() -> recordWrite(user)));
+  }
+
+  @Override
+  public Mono<Connection> create() {
+    return Mono.deferContextual(context -> context.hasKey(READ_ONLY) && !context.hasKey(PRIMARY) && !replicas.isEmpty()
+        ? readConnection()
+        : Mono.<Connection>from(primary.create()));
+  }
+
+  @Override
+  public ConnectionFactoryMetadata getMetadata() {
+    return primary.getMetadata();
+  }
+
+  @Override
+  public ConnectionFactory unwrap() {
+    return primary;
+  }
+
+  /**
+   * The primary followed by the replicas.
+   */
+  public List<ConnectionFactory> targets() {
+    List<ConnectionFactory> targets = new ArrayList<>(replicas.size() + 1);
+    targets.add(primary);
+    replicas.forEach(replica -> targets.add(replica.connectionFactory));
+    return targets;
+  }
+
+  public int ejectedReplicas() {
+    long now = System.nanoTime();
+    return (int) replicas.stream().filter(replica -> replica.isEjected(now)).count();
+  }
+
+  @Override
+  public void dispose() {
+    targets().forEach(target -> {
+      if (target instanceof Disposable disposable) {
+        disposable.dispose();
+      }
+    });
+  }
+
+  private Mono<Connection> readConnection() {
+    if (recentWriters == null || recentWriters.estimatedSize() == 0) {
+      return replicaConnection();
+    }
+    return currentUser().flatMap(user -> recentWriters.getIfPresent(user) != null
+        ? Mono.<Connection>from(primary.create())
+        : replicaConnection());
+  }
+
+  private Mono<Connection> replicaConnection() {
+    return replicaConnection(Math.floorMod(nextReplica.getAndIncrement(), replicas.size()), 0);
+  }
+
+  private Mono<Connection> replicaConnection(int first, int attempt) {
+    if (attempt == replicas.size()) {
+      return Mono.<Connection>from(primary.create());
+    }
+    Replica replica = replicas.get((first + attempt) % replicas.size());
+    if (replica.isEjected(System.nanoTime())) {
+      return replicaConnection(first, attempt + 1);
+    }
+    return Mono.<Connection>from(replica.connectionFactory.create())
+        .onErrorResume(throwable -> {
+          replica.ejectedUntil = System.nanoTime() + ejectionNanos;
+          log.warn("Replica {} ejected for {} ms: {}",
+              first + attempt, Duration.ofNanos(ejectionNanos).toMillis(), throwable.getMessage());
+          return replicaConnection(first, attempt + 1);
+        });
+  }
+
+  private void recordWrite(String user) {
+    if (!ANONYMOUS.equals(user)) {
+      recentWriters.put(user, Boolean.TRUE);
+    }
+  }
+
+  private static Mono<String> currentUser() {
+    return ReactiveSecurityContextHolder.getContext()
+        .filter(securityContext -> securityContext.getAuthentication() != null)
+        .map(securityContext -> securityContext.getAuthentication().getName())
+        .defaultIfEmpty(ANONYMOUS);
+  }
+
+  private static final class Replica {
+
+    private final ConnectionFactory connectionFactory;
+    private volatile long ejectedUntil;
+
+    private Replica(ConnectionFactory connectionFactory) {
+      this.connectionFactory = connectionFactory;
+      this.ejectedUntil = System.nanoTime();
+    }
+
+    private boolean isEjected(long now) {
+      return ejectedUntil - now > 0;
+    }
+
+  }
+
+}
@@ -0,0 +1,28 @@
+package com.emendes.webflux.replica;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+/**
+ * Adds {@link ReadOnlyRoutingInterceptor} to every Spring Data repository proxy.
+ */
+public class ReplicaRoutingPostProcessor implements BeanPostProcessor {
+
+  private final ObjectProvider<ReplicaRoutingConnectionFactory> connectionFactory;
+
+  public ReplicaRoutingPostProcessor(ObjectProvider<ReplicaRoutingConnectionFactory> connectionFactory) {
+    this.connectionFactory = connectionFactory;
+  }
+
+  @Override
+  public Object postProcessBeforeInitialization(Object bean, String beanName) {
+    if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> repositoryFactoryBean) {
+      repositoryFactoryBean.addRepositoryFactoryCustomizer(repositoryFactory ->
+          repositoryFactory.addRepositoryProxyPostProcessor((proxyFactory, repositoryInformation) ->
+              proxyFactory.addAdvice(new ReadOnlyRoutingInterceptor(connectionFactory))));
+    }
+    return bean;
+  }
+
+}
@@ -0,0 +1,16 @@
+package com.emendes.webflux.repository;
+
+import com.emendes.webflux.domain.Anime;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+public interface AnimeBatchRepository {
+
+  /**
+   * Inserts the given animes in batched statements, all in one transaction, and returns them with their generated
+   * ids, in the same order as the input. The returned flux completes once the transaction has committed.
+   */
+  Flux<Anime> insertAll(List<Anime> animeList);
+
+}
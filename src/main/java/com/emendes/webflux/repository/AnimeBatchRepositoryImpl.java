@@ -0,0 +1,55 @@
+package com.emendes.webflux.repository;
+
+import com.emendes.webflux.domain.Anime;
+import io.r2dbc.spi.Statement;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+public class AnimeBatchRepositoryImpl implements AnimeBatchRepository {
+
+  private static final String INSERT_ANIME = "INSERT INTO t_anime (name, version) VALUES ($1, 0)";
+
+  private final DatabaseClient databaseClient;
+  private final TransactionalOperator transactionalOperator;
+  private final int chunkSize;
+
+  public AnimeBatchRepositoryImpl(
+      DatabaseClient databaseClient,
+      TransactionalOperator transactionalOperator,
+      @Value("${webflux.anime.batch.chunk-size:500}") int chunkSize) {
+    this.databaseClient = databaseClient;
+    this.transactionalOperator = transactionalOperator;
+    this.chunkSize = chunkSize;
+  }
+
+  // The repository owns the transaction, as the JDBC repository does with its TransactionTemplate
+  @Override
+  public Flux<Anime> insertAll(List<Anime> animeList) {
+    return transactionalOperator.transactional(Flux.fromIterable(animeList)
+        .buffer(chunkSize)
+        .concatMap(this::insertChunk));
+  }
+
+  // One statement with a binding per anime: the driver pipelines all bindings in a single round trip
+  // and returns one result per binding, in order.
+  private Flux<Anime> insertChunk(List<Anime> chunk) {
+    return databaseClient.inConnectionMany(connection -> {
+      Statement statement = connection.createStatement(INSERT_ANIME).returnGeneratedValues("id");
+      for (int i = 0; i < chunk.size(); i++) {
+        if (i > 0) {
+          statement.add();
+        }
+        statement.bind(0, chunk.get(i).getName());
+      }
+
+      return Flux.from(statement.execute())
+          .concatMap(result -> result.map((row, metadata) -> row.get("id", Integer.class)))
+          .zipWithIterable(chunk, (id, anime) -> anime.withId(id).withVersion(0));
+    });
+  }
+
+}
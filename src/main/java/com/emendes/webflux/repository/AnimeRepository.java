@@ -1,7 +1,55 @@
 package com.emendes.webflux.repository;
 
 import com.emendes.webflux.domain.Anime;
+import com.emendes.webflux.domain.AnimeSearchHit;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface AnimeRepository extends ReactiveCrudRepository<Anime, Integer>, AnimeBatchRepository {
+
+  @Query("SELECT * FROM t_anime WHERE id > :afterId ORDER BY id LIMIT :limit")
+  Flux<Anime> findPageAfterId(int afterId, int limit);
+
+  // A null upper bound leaves the range open, for prefixes that end in the highest code point
+  @Query("""
+      SELECT * FROM t_anime
+      WHERE lower(name) COLLATE "C" >= :from AND (CAST(:to AS TEXT) IS NULL OR lower(name) COLLATE "C" < :to)
+        AND (lower(name) COLLATE "C", id) > (lower(:afterName) COLLATE "C", :afterId)
+      ORDER BY lower(name) COLLATE "C", id
+      LIMIT :limit""")
+  Flux<Anime> searchByNamePrefix(String from, String to, String afterName, int afterId, int limit);
+
+  @Query("""
+      SELECT id, name, version, rank FROM (
+        SELECT a.id, a.name, a.version, ts_rank(to_tsvector('simple', a.name), q.query) AS rank
+        FROM t_anime a, plainto_tsquery('simple', :query) AS q(query)
+        WHERE to_tsvector('simple', a.name) @@ q.query
+      ) ranked
+      WHERE rank < :afterRank OR (rank = :afterRank AND id > :afterId)
+      ORDER BY rank DESC, id
+      LIMIT :limit""")
+  Flux<AnimeSearchHit> searchByNameFullText(String query, float afterRank, int afterId, int limit);
+
+  // Changes on any insert, update or delete: inserts raise MAX(id), updates raise SUM(version), deletes lower COUNT(*)
+  @Query("SELECT COUNT(*) || '-' || COALESCE(SUM(version), 0) || '-' || COALESCE(MAX(id), 0) FROM t_anime")
+  Mono<String> findCatalogVersion();
+
+  // RETURNING hands back the row as stored, with the version the database assigned; empty when nothing matched
+  @Query("UPDATE t_anime SET name = :name, version = version + 1 WHERE id = :id RETURNING *")
+  Mono<Anime> updateName(int id, String name);
+
+  @Query("UPDATE t_anime SET name = :name, version = version + 1 WHERE id = :id AND version = :version RETURNING *")
+  Mono<Anime> updateNameIfVersion(int id, String name, int version);
+
+  @Modifying
+  @Query("DELETE FROM t_anime WHERE id = :id")
+  Mono<Integer> deleteAnimeById(int id);
+
+  @Modifying
+  @Query("DELETE FROM t_anime WHERE id = :id AND version = :version")
+  Mono<Integer> deleteAnimeByIdIfVersion(int id, int version);
 
-public interface AnimeRepository extends ReactiveCrudRepository<Anime, Integer> {
 }
@@ -0,0 +1,39 @@
+package com.emendes.webflux.repository.jdbc;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Slf4j
+public final class BlockingSchedulers {
+
+  private BlockingSchedulers() {
+  }
+
+  /**
+   * A scheduler for blocking calls: one virtual thread per task on Java 21 and later, otherwise a bounded
+   * elastic pool of {@code fallbackThreads} platform threads.
+   */
+  public static Scheduler create(String name, int fallbackThreads) {
+    ExecutorService virtualThreads = virtualThreadPerTaskExecutor();
+    if (virtualThreads != null) {
+      log.info("Running {} tasks on virtual threads", name);
+      return Schedulers.fromExecutorService(virtualThreads, name);
+    }
+    log.info("Virtual threads are not available, running {} tasks on up to {} platform threads", name, fallbackThreads);
+    return Schedulers.newBoundedElastic(fallbackThreads, Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE, name);
+  }
+
+  // Looked up reflectively so that the code still compiles for Java 17
+  private static ExecutorService virtualThreadPerTaskExecutor() {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (ReflectiveOperationException exception) {
+      return null;
+    }
+  }
+
+}
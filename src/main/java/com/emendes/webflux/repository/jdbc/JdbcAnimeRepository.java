@@ -0,0 +1,163 @@
+package com.emendes.webflux.repository.jdbc;
+
+import com.emendes.webflux.domain.Anime;
+import com.emendes.webflux.domain.AnimeSearchHit;
+import com.emendes.webflux.repository.AnimeRepository;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link AnimeRepository} over blocking JDBC, used by the {@code jdbc} execution mode. The SQL is the same as in
+ * the R2DBC repository.
+ */
+public class JdbcAnimeRepository extends JdbcCrudRepository<Anime> implements AnimeRepository {
+
+  private static final RowMapper<Anime> ANIME_ROW_MAPPER = (resultSet, rowNum) -> new Anime(
+      resultSet.getInt("id"), resultSet.getString("name"), resultSet.getInt("version"));
+
+  private static final RowMapper<AnimeSearchHit> SEARCH_HIT_ROW_MAPPER = (resultSet, rowNum) -> new AnimeSearchHit(
+      resultSet.getInt("id"), resultSet.getString("name"), resultSet.getInt("version"), resultSet.getFloat("rank"));
+
+  private static final String INSERT_ANIME = "INSERT INTO t_anime (name, version) VALUES (:name, 0)";
+
+  private final TransactionTemplate transactionTemplate;
+
+  public JdbcAnimeRepository(
+      NamedParameterJdbcTemplate jdbcTemplate,
+      TransactionTemplate transactionTemplate,
+      Scheduler scheduler) {
+    super(jdbcTemplate, scheduler, "t_anime", ANIME_ROW_MAPPER);
+    this.transactionTemplate = transactionTemplate;
+  }
+
+  @Override
+  protected Integer idOf(Anime anime) {
+    return anime.getId();
+  }
+
+  // Same semantics as the R2DBC repository: a null id inserts with version 0, otherwise the update must match the
+  // stored version
+  @Override
+  protected Anime store(Anime anime) {
+    if (anime.getId() == null) {
+      KeyHolder keyHolder = new GeneratedKeyHolder();
+      jdbcTemplate.update(INSERT_ANIME, new MapSqlParameterSource("name", anime.getName()), keyHolder,
+          new String[]{"id"});
+      return anime.withId(keyHolder.getKeyAs(Integer.class)).withVersion(0);
+    }
+
+    int version = anime.getVersion() == null ? 0 : anime.getVersion();
+    int updated = jdbcTemplate.update(
+        "UPDATE t_anime SET name = :name, version = :version + 1 WHERE id = :id AND version = :version",
+        Map.of("id", anime.getId(), "name", anime.getName(), "version", version));
+    if (updated == 0) {
+      throw new OptimisticLockingFailureException(
+          "Failed to update anime with id %d and version %d".formatted(anime.getId(), version));
+    }
+    return anime.withVersion(version + 1);
+  }
+
+  // One keyed insert per row: Spring 5.3 has no batchUpdate that hands back generated keys. The whole call is one
+  // transaction so callers keep all-or-nothing inserts
+  @Override
+  public Flux<Anime> insertAll(List<Anime> animeList) {
+    return flux(() -> transactionTemplate.execute(status -> {
+      List<Anime> savedAnimes = new ArrayList<>(animeList.size());
+      for (Anime anime : animeList) {
+        savedAnimes.add(store(anime.withId(null)));
+      }
+      return savedAnimes;
+    }));
+  }
+
+  @Override
+  public Flux<Anime> findPageAfterId(int afterId, int limit) {
+    return query("SELECT * FROM t_anime WHERE id > :afterId ORDER BY id LIMIT :limit",
+        Map.of("afterId", afterId, "limit", limit));
+  }
+
+  @Override
+  public Flux<Anime> searchByNamePrefix(String from, String to, String afterName, int afterId, int limit) {
+    // MapSqlParameterSource rather than Map.of, which rejects the null upper bound
+    MapSqlParameterSource parameters = new MapSqlParameterSource()
+        .addValue("from", from)
+        .addValue("to", to, Types.VARCHAR)
+        .addValue("afterName", afterName)
+        .addValue("afterId", afterId)
+        .addValue("limit", limit);
+    return flux(() -> jdbcTemplate.query("""
+            SELECT * FROM t_anime
+            WHERE lower(name) COLLATE "C" >= :from AND (CAST(:to AS TEXT) IS NULL OR lower(name) COLLATE "C" < :to)
+              AND (lower(name) COLLATE "C", id) > (lower(:afterName) COLLATE "C", :afterId)
+            ORDER BY lower(name) COLLATE "C", id
+            LIMIT :limit""",
+        parameters, ANIME_ROW_MAPPER));
+  }
+
+  @Override
+  public Flux<AnimeSearchHit> searchByNameFullText(String query, float afterRank, int afterId, int limit) {
+    return flux(() -> jdbcTemplate.query("""
+            SELECT id, name, version, rank FROM (
+              SELECT a.id, a.name, a.version, ts_rank(to_tsvector('simple', a.name), q.query) AS rank
+              FROM t_anime a, plainto_tsquery('simple', :query) AS q(query)
+              WHERE to_tsvector('simple', a.name) @@ q.query
+            ) ranked
+            WHERE rank < :afterRank OR (rank = :afterRank AND id > :afterId)
+            ORDER BY rank DESC, id
+            LIMIT :limit""",
+        Map.of("query", query, "afterRank", afterRank, "afterId", afterId, "limit", limit),
+        SEARCH_HIT_ROW_MAPPER));
+  }
+
+  @Override
+  public Mono<String> findCatalogVersion() {
+    return mono(() -> jdbcTemplate.queryForObject(
+        "SELECT COUNT(*) || '-' || COALESCE(SUM(version), 0) || '-' || COALESCE(MAX(id), 0) FROM t_anime",
+        Map.of(), String.class));
+  }
+
+  @Override
+  public Mono<Anime> updateName(int id, String name) {
+    return updateAndRead(id,
+        "UPDATE t_anime SET name = :name, version = version + 1 WHERE id = :id", Map.of("id", id, "name", name));
+  }
+
+  @Override
+  public Mono<Anime> updateNameIfVersion(int id, String name, int version) {
+    return updateAndRead(id,
+        "UPDATE t_anime SET name = :name, version = version + 1 WHERE id = :id AND version = :version",
+        Map.of("id", id, "name", name, "version", version));
+  }
+
+  // UPDATE ... RETURNING as an update and a read of the row in one transaction, which H2 also runs
+  private Mono<Anime> updateAndRead(int id, String sql, Map<String, ?> parameters) {
+    return mono(() -> transactionTemplate.execute(status -> jdbcTemplate.update(sql, parameters) == 0
+        ? null
+        : jdbcTemplate.queryForObject("SELECT * FROM t_anime WHERE id = :id", Map.of("id", id), ANIME_ROW_MAPPER)));
+  }
+
+  @Override
+  public Mono<Integer> deleteAnimeById(int id) {
+    return mono(() -> jdbcTemplate.update("DELETE FROM t_anime WHERE id = :id", Map.of("id", id)));
+  }
+
+  @Override
+  public Mono<Integer> deleteAnimeByIdIfVersion(int id, int version) {
+    return mono(() -> jdbcTemplate.update(
+        "DELETE FROM t_anime WHERE id = :id AND version = :version", Map.of("id", id, "version", version)));
+  }
+
+}
@@ -0,0 +1,153 @@
+package com.emendes.webflux.repository.jdbc;
+
+import org.reactivestreams.Publisher;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+import java.util.stream.StreamSupport;
+
+/**
+ * {@link ReactiveCrudRepository} over blocking JDBC for entities with an integer id. Each call runs on the given
+ * scheduler, so callers keep the reactive contract and event loop threads never block.
+ */
+public abstract class JdbcCrudRepository<T> implements ReactiveCrudRepository<T, Integer> {
+
+  protected final NamedParameterJdbcTemplate jdbcTemplate;
+  private final Scheduler scheduler;
+  private final String table;
+  private final RowMapper<T> rowMapper;
+
+  protected JdbcCrudRepository(
+      NamedParameterJdbcTemplate jdbcTemplate, Scheduler scheduler, String table, RowMapper<T> rowMapper) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.scheduler = scheduler;
+    this.table = table;
+    this.rowMapper = rowMapper;
+  }
+
+  protected abstract Integer idOf(T entity);
+
+  /**
+   * Inserts or updates the entity and returns it as stored.
+   */
+  protected abstract T store(T entity);
+
+  protected <R> Mono<R> mono(Callable<R> call) {
+    return Mono.fromCallable(call).subscribeOn(scheduler);
+  }
+
+  protected <R> Flux<R> flux(Callable<List<R>> call) {
+    return mono(call).flatMapIterable(Function.identity());
+  }
+
+  protected Flux<T> query(String sql, Map<String, ?> parameters) {
+    return flux(() -> jdbcTemplate.query(sql, parameters, rowMapper));
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <S extends T> Mono<S> save(S entity) {
+    return mono(() -> (S) store(entity));
+  }
+
+  @Override
+  public <S extends T> Flux<S> saveAll(Iterable<S> entities) {
+    return Flux.fromIterable(entities).concatMap(this::save);
+  }
+
+  @Override
+  public <S extends T> Flux<S> saveAll(Publisher<S> entityStream) {
+    return Flux.from(entityStream).concatMap(this::save);
+  }
+
+  @Override
+  public Mono<T> findById(Integer id) {
+    return query("SELECT * FROM " + table + " WHERE id = :id", Map.of("id", id)).next();
+  }
+
+  @Override
+  public Mono<T> findById(Publisher<Integer> id) {
+    return Mono.from(id).flatMap(this::findById);
+  }
+
+  @Override
+  public Mono<Boolean> existsById(Integer id) {
+    return mono(() -> !jdbcTemplate.queryForList("SELECT 1 FROM " + table + " WHERE id = :id", Map.of("id", id),
+        Integer.class).isEmpty());
+  }
+
+  @Override
+  public Mono<Boolean> existsById(Publisher<Integer> id) {
+    return Mono.from(id).flatMap(this::existsById);
+  }
+
+  @Override
+  public Flux<T> findAll() {
+    return query("SELECT * FROM " + table, Map.of());
+  }
+
+  @Override
+  public Flux<T> findAllById(Iterable<Integer> ids) {
+    List<Integer> idList = StreamSupport.stream(ids.spliterator(), false).toList();
+    return idList.isEmpty()
+        ? Flux.empty()
+        : query("SELECT * FROM " + table + " WHERE id IN (:ids)", Map.of("ids", idList));
+  }
+
+  @Override
+  public Flux<T> findAllById(Publisher<Integer> idStream) {
+    return Flux.from(idStream).collectList().flatMapMany(this::findAllById);
+  }
+
+  @Override
+  public Mono<Long> count() {
+    return mono(() -> jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Map.of(), Long.class));
+  }
+
+  @Override
+  public Mono<Void> deleteById(Integer id) {
+    return mono(() -> jdbcTemplate.update("DELETE FROM " + table + " WHERE id = :id", Map.of("id", id))).then();
+  }
+
+  @Override
+  public Mono<Void> deleteById(Publisher<Integer> id) {
+    return Mono.from(id).flatMap(this::deleteById);
+  }
+
+  @Override
+  public Mono<Void> delete(T entity) {
+    return deleteById(idOf(entity));
+  }
+
+  @Override
+  public Mono<Void> deleteAllById(Iterable<? extends Integer> ids) {
+    List<Integer> idList = StreamSupport.stream(ids.spliterator(), false).map(Integer.class::cast).toList();
+    return idList.isEmpty()
+        ? Mono.empty()
+        : mono(() -> jdbcTemplate.update("DELETE FROM " + table + " WHERE id IN (:ids)", Map.of("ids", idList))).then();
+  }
+
+  @Override
+  public Mono<Void> deleteAll(Iterable<? extends T> entities) {
+    return deleteAllById(StreamSupport.stream(entities.spliterator(), false).map(this::idOf).toList());
+  }
+
+  @Override
+  public Mono<Void> deleteAll(Publisher<? extends T> entityStream) {
+    return Flux.from(entityStream).map(this::idOf).collectList().flatMap(this::deleteAllById);
+  }
+
+  @Override
+  public Mono<Void> deleteAll() {
+    return mono(() -> jdbcTemplate.update("DELETE FROM " + table, Map.of())).then();
+  }
+
+}
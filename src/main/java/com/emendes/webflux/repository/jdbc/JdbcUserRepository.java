@@ -0,0 +1,71 @@
+package com.emendes.webflux.repository.jdbc;
+
+import com.emendes.webflux.domain.DevDojoUser;
+import com.emendes.webflux.repository.UserRepository;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.security.core.GrantedAuthority;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.Map;
+
+/**
+ * {@link UserRepository} over blocking JDBC, used by the {@code jdbc} execution mode.
+ */
+public class JdbcUserRepository extends JdbcCrudRepository<DevDojoUser> implements UserRepository {
+
+  private static final RowMapper<DevDojoUser> USER_ROW_MAPPER = (resultSet, rowNum) -> DevDojoUser.builder()
+      .id(resultSet.getInt("id"))
+      .name(resultSet.getString("name"))
+      .username(resultSet.getString("username"))
+      .password(resultSet.getString("password"))
+      .authorities(resultSet.getString("authorities"))
+      .build();
+
+  public JdbcUserRepository(NamedParameterJdbcTemplate jdbcTemplate, Scheduler scheduler) {
+    super(jdbcTemplate, scheduler, "t_devdojo_user", USER_ROW_MAPPER);
+  }
+
+  @Override
+  protected Integer idOf(DevDojoUser user) {
+    return user.getId();
+  }
+
+  @Override
+  protected DevDojoUser store(DevDojoUser user) {
+    MapSqlParameterSource parameters = new MapSqlParameterSource()
+        .addValue("name", user.getName())
+        .addValue("username", user.getUsername())
+        .addValue("password", user.getPassword())
+        .addValue("authorities", String.join(",",
+            user.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList()));
+    if (user.getId() == null) {
+      KeyHolder keyHolder = new GeneratedKeyHolder();
+      jdbcTemplate.update("""
+          INSERT INTO t_devdojo_user (name, username, password, authorities)
+          VALUES (:name, :username, :password, :authorities)""", parameters, keyHolder, new String[]{"id"});
+      return user.withId(keyHolder.getKeyAs(Integer.class));
+    }
+
+    int updated = jdbcTemplate.update("""
+        UPDATE t_devdojo_user
+        SET name = :name, username = :username, password = :password, authorities = :authorities
+        WHERE id = :id""", parameters.addValue("id", user.getId()));
+    if (updated == 0) {
+      throw new TransientDataAccessResourceException(
+          "Failed to update table t_devdojo_user, row with id %d does not exist".formatted(user.getId()));
+    }
+    return user;
+  }
+
+  @Override
+  public Mono<DevDojoUser> findByUsername(String username) {
+    return query("SELECT * FROM t_devdojo_user WHERE username = :username", Map.of("username", username)).next();
+  }
+
+}
@@ -0,0 +1,196 @@
+package com.emendes.webflux.schema;
+
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.R2dbcDataIntegrityViolationException;
+import io.r2dbc.spi.Wrapped;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.r2dbc.connection.init.ScriptUtils;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Applies the versioned SQL scripts found at {@code webflux.schema.location} ({@code V<version>__<description>.sql})
+ * that are not yet recorded in {@code t_schema_version}, each in its own transaction, and then checks that the
+ * indexes the hot paths rely on exist. Runs after all singletons are created and before the web server starts,
+ * so a failed migration or a missing index fails startup.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "webflux.schema.migrate", havingValue = "true", matchIfMissing = true)
+public class SchemaMigrator implements SmartInitializingSingleton {
+
+  private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+
+  private static final String CREATE_VERSION_TABLE = """
+      CREATE TABLE IF NOT EXISTS t_schema_version (
+          version INTEGER PRIMARY KEY,
+          description VARCHAR(255) NOT NULL,
+          checksum VARCHAR(64) NOT NULL,
+          applied_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+      )""";
+  private static final String SELECT_VERSIONS = "SELECT version, checksum FROM t_schema_version";
+  private static final String INSERT_VERSION = "INSERT INTO t_schema_version (version, description, checksum) VALUES ($1, $2, $3)";
+
+  private static final String POSTGRES_INDEXES = "SELECT indexname FROM pg_indexes WHERE schemaname = current_schema()";
+  private static final String H2_INDEXES = "SELECT INDEX_NAME FROM INFORMATION_SCHEMA.INDEXES WHERE TABLE_SCHEMA = SCHEMA()";
+
+  private final DatabaseClient databaseClient;
+  private final ResourcePatternResolver resourcePatternResolver;
+  private final String location;
+  private final List<String> requiredIndexes;
+  private final Duration timeout;
+
+  public SchemaMigrator(
+      DatabaseClient databaseClient,
+      ResourceLoader resourceLoader,
+      @Value("${webflux.schema.location:classpath:db/migration}") String location,
+      @Value("${webflux.schema.required-indexes:}") List<String> requiredIndexes,
+      @Value("${webflux.schema.timeout:60s}") Duration timeout) {
+    this.databaseClient = databaseClient;
+    this.resourcePatternResolver = ResourcePatternUtils.getResourcePatternResolver(resourceLoader);
+    this.location = location;
+    this.requiredIndexes = requiredIndexes;
+    this.timeout = timeout;
+  }
+
+  @Override
+  public void afterSingletonsInstantiated() {
+    migrate()
+        .then(verifyIndexes())
+        .block(timeout);
+  }
+
+  public Mono<Void> migrate() {
+    List<Migration> migrations = findMigrations();
+
+    return databaseClient.sql(CREATE_VERSION_TABLE).then()
+        .then(databaseClient.sql(SELECT_VERSIONS)
+            .map((row, metadata) -> Map.entry(row.get("version", Integer.class), row.get("checksum", String.class)))
+            .all()
+            .collectMap(Map.Entry::getKey, Map.Entry::getValue))
+        .flatMapMany(applied -> Flux.fromIterable(migrations).filter(migration -> isPending(migration, applied)))
+        .concatMap(this::apply)
+        .then();
+  }
+
+  public Mono<Void> verifyIndexes() {
+    if (requiredIndexes.isEmpty()) {
+      return Mono.empty();
+    }
+
+    String database = unwrap(databaseClient.getConnectionFactory()).getMetadata().getName();
+    String query = database.startsWith("PostgreSQL") ? POSTGRES_INDEXES : database.startsWith("H2") ? H2_INDEXES : null;
+    if (query == null) {
+      log.warn("Cannot verify indexes on {}, skipping the check", database);
+      return Mono.empty();
+    }
+
+    return databaseClient.sql(query)
+        .map((row, metadata) -> row.get(0, String.class).toLowerCase(Locale.ROOT))
+        .all()
+        .collect(Collectors.toSet())
+        .flatMap(existing -> {
+          List<String> missing = requiredIndexes.stream()
+              .filter(index -> !existing.contains(index.trim().toLowerCase(Locale.ROOT)))
+              .toList();
+          return missing.isEmpty()
+              ? Mono.<Void>empty()
+              : Mono.error(new IllegalStateException("Missing required database indexes: " + missing));
+        });
+  }
+
+  private boolean isPending(Migration migration, Map<Integer, String> applied) {
+    String checksum = applied.get(migration.version());
+    if (checksum == null) {
+      return true;
+    }
+    if (!checksum.equals(migration.checksum())) {
+      throw new IllegalStateException("Migration V" + migration.version() + " was changed after it was applied");
+    }
+    return false;
+  }
+
+  // The version row is written first: a second instance migrating at the same time blocks on it and then fails
+  // on the primary key, rolling back before it runs the script again.
+  private Mono<Void> apply(Migration migration) {
+    return databaseClient.inConnection(connection -> Mono.from(connection.beginTransaction())
+            .then(Mono.from(connection.createStatement(INSERT_VERSION)
+                    .bind(0, migration.version())
+                    .bind(1, migration.description())
+                    .bind(2, migration.checksum())
+                    .execute())
+                .flatMap(result -> Mono.from(result.getRowsUpdated())))
+            .then(ScriptUtils.executeSqlScript(connection, migration.script()))
+            .then(Mono.from(connection.commitTransaction()))
+            .onErrorResume(throwable -> Mono.from(connection.rollbackTransaction()).then(Mono.error(throwable))))
+        .doOnSuccess(v -> log.info("Applied schema migration V{} {}", migration.version(), migration.description()))
+        .onErrorResume(SchemaMigrator::isDuplicateVersion, exception -> {
+          log.info("Schema migration V{} was applied by another instance", migration.version());
+          return Mono.empty();
+        });
+  }
+
+  private static boolean isDuplicateVersion(Throwable throwable) {
+    return throwable instanceof DataIntegrityViolationException || throwable instanceof R2dbcDataIntegrityViolationException;
+  }
+
+  private List<Migration> findMigrations() {
+    try {
+      Map<Integer, Migration> migrations = new TreeMap<>();
+      for (Resource script : resourcePatternResolver.getResources(location + "/V*__*.sql")) {
+        Matcher matcher = SCRIPT_NAME.matcher(Objects.requireNonNull(script.getFilename()));
+        if (!matcher.matches()) {
+          throw new IllegalStateException("Invalid migration script name: " + script.getFilename());
+        }
+        Migration migration = new Migration(
+            Integer.parseInt(matcher.group(1)), matcher.group(2).replace('_', ' '), script, checksum(script));
+        if (migrations.put(migration.version(), migration) != null) {
+          throw new IllegalStateException("Duplicate migration version V" + migration.version());
+        }
+      }
+      return List.copyOf(migrations.values());
+    } catch (IOException exception) {
+      throw new UncheckedIOException(exception);
+    }
+  }
+
+  private static String checksum(Resource script) throws IOException {
+    try (InputStream inputStream = script.getInputStream()) {
+      return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(inputStream.readAllBytes()));
+    } catch (NoSuchAlgorithmException exception) {
+      throw new IllegalStateException(exception);
+    }
+  }
+
+  private static ConnectionFactory unwrap(ConnectionFactory connectionFactory) {
+    if (connectionFactory instanceof Wrapped<?> wrapped && wrapped.unwrap() instanceof ConnectionFactory target) {
+      return unwrap(target);
+    }
+    return connectionFactory;
+  }
+
+  private record Migration(int version, String description, Resource script, String checksum) {
+  }
+
+}
@@ -0,0 +1,36 @@
+package com.emendes.webflux.security;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.UserDetailsRepositoryReactiveAuthenticationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Runs the password check on the given bounded scheduler instead of the calling thread and turns a saturated
+ * scheduler into a 429 instead of queueing without limit.
+ */
+public class BoundedUserDetailsAuthenticationManager extends UserDetailsRepositoryReactiveAuthenticationManager {
+
+  public BoundedUserDetailsAuthenticationManager(
+      ReactiveUserDetailsService userDetailsService,
+      PasswordEncoder passwordEncoder,
+      Scheduler passwordHashingScheduler) {
+    super(userDetailsService);
+    setPasswordEncoder(passwordEncoder);
+    setScheduler(passwordHashingScheduler);
+  }
+
+  @Override
+  public Mono<Authentication> authenticate(Authentication authentication) {
+    return super.authenticate(authentication)
+        .onErrorMap(RejectedExecutionException.class,
+            exception -> new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many concurrent authentications"));
+  }
+
+}
@@ -0,0 +1,97 @@
+package com.emendes.webflux.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import reactor.core.publisher.Mono;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * Remembers successful username/password authentications for a short time, so that repeated HTTP Basic
+ * requests skip the password hash check. Entries are keyed by an HMAC of the credentials with a per-process
+ * random key, so raw passwords are never kept in memory.
+ */
+public class CachingReactiveAuthenticationManager implements ReactiveAuthenticationManager {
+
+  private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+  private final ReactiveAuthenticationManager delegate;
+  private final Cache<String, Authentication> verifiedCredentials;
+  private final ThreadLocal<Mac> macs;
+
+  public CachingReactiveAuthenticationManager(ReactiveAuthenticationManager delegate, long maximumSize, Duration ttl) {
+    this.delegate = delegate;
+    this.verifiedCredentials = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterWrite(ttl)
+        .recordStats()
+        .build();
+
+    byte[] secret = new byte[32];
+    new SecureRandom().nextBytes(secret);
+    SecretKeySpec key = new SecretKeySpec(secret, HMAC_ALGORITHM);
+    this.macs = ThreadLocal.withInitial(() -> newMac(key));
+  }
+
+  @Override
+  public Mono<Authentication> authenticate(Authentication authentication) {
+    if (!(authentication instanceof UsernamePasswordAuthenticationToken) || authentication.getCredentials() == null) {
+      return delegate.authenticate(authentication);
+    }
+
+    // The lookup runs on subscription, so a Mono assembled before an earlier login completed still sees its result
+    return Mono.defer(() -> {
+      String digest = digest(authentication.getName(), authentication.getCredentials().toString());
+      Authentication verified = verifiedCredentials.getIfPresent(digest);
+      if (verified != null) {
+        return Mono.just(verified);
+      }
+
+      return delegate.authenticate(authentication)
+          .doOnNext(result -> verifiedCredentials.put(digest, result));
+    });
+  }
+
+  /**
+   * Forgets the verified credentials of the given username, or of every user when username is null.
+   */
+  public void evict(String username) {
+    if (username == null) {
+      verifiedCredentials.invalidateAll();
+    } else {
+      verifiedCredentials.asMap().values().removeIf(authentication -> username.equals(authentication.getName()));
+    }
+  }
+
+  public CacheStats stats() {
+    return verifiedCredentials.stats();
+  }
+
+  private String digest(String username, String password) {
+    Mac mac = macs.get();
+    mac.update(username.getBytes(StandardCharsets.UTF_8));
+    mac.update((byte) 0);
+    return Base64.getEncoder().encodeToString(mac.doFinal(password.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  private static Mac newMac(SecretKeySpec key) {
+    try {
+      Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+      mac.init(key);
+      return mac;
+    } catch (GeneralSecurityException exception) {
+      throw new IllegalStateException("Could not initialize " + HMAC_ALGORITHM, exception);
+    }
+  }
+
+}
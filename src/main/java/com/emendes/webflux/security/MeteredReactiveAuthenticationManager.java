@@ -0,0 +1,68 @@
+package com.emendes.webflux.security;
+
+import com.emendes.webflux.warmup.WarmupWebFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+/**
+ * Records how long authentications take, tagged by outcome: success, bad_credentials, rejected (the password
+ * hashing pool was saturated) or error. The timers are registered up front so the hot path only reads a clock.
+ * Warm-up requests are not recorded.
+ */
+public class MeteredReactiveAuthenticationManager implements ReactiveAuthenticationManager {
+
+  static final String METRIC_NAME = "webflux.security.authentications";
+
+  private final ReactiveAuthenticationManager delegate;
+  private final MeterRegistry meterRegistry;
+  private final Timer success;
+  private final Timer badCredentials;
+  private final Timer rejected;
+  private final Timer error;
+
+  public MeteredReactiveAuthenticationManager(ReactiveAuthenticationManager delegate, MeterRegistry meterRegistry) {
+    this.delegate = delegate;
+    this.meterRegistry = meterRegistry;
+    this.success = timer("success");
+    this.badCredentials = timer("bad_credentials");
+    this.rejected = timer("rejected");
+    this.error = timer("error");
+  }
+
+  @Override
+  public Mono<Authentication> authenticate(Authentication authentication) {
+    return Mono.deferContextual(context -> {
+      if (WarmupWebFilter.isWarmup(context)) {
+        return delegate.authenticate(authentication);
+      }
+      Timer.Sample sample = Timer.start(meterRegistry);
+      return delegate.authenticate(authentication)
+          .doOnSuccess(result -> sample.stop(result != null ? success : badCredentials))
+          .doOnError(throwable -> sample.stop(timerFor(throwable)));
+    });
+  }
+
+  private Timer timerFor(Throwable throwable) {
+    if (throwable instanceof AuthenticationException) {
+      return badCredentials;
+    }
+    if (throwable instanceof ResponseStatusException exception && exception.getStatus() == HttpStatus.TOO_MANY_REQUESTS) {
+      return rejected;
+    }
+    return error;
+  }
+
+  private Timer timer(String outcome) {
+    return Timer.builder(METRIC_NAME)
+        .description("Time taken to authenticate a request")
+        .tag("outcome", outcome)
+        .register(meterRegistry);
+  }
+
+}
@@ -0,0 +1,133 @@
+package com.emendes.webflux.service;
+
+import com.emendes.webflux.domain.Anime;
+import com.emendes.webflux.warmup.WarmupWebFilter;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+@Component
+public class AnimeCache {
+
+  private static final Boolean CATALOG = Boolean.TRUE;
+
+  private final AsyncCache<Integer, Optional<Anime>> cache;
+  private final AsyncCache<Boolean, String> catalogVersion;
+  private final List<Runnable> catalogChangeListeners = new CopyOnWriteArrayList<>();
+  private final LongAdder coalescedLoads = new LongAdder();
+
+  public AnimeCache(
+      @Value("${webflux.anime.cache.maximum-size:10000}") long maximumSize,
+      @Value("${webflux.anime.cache.ttl:5m}") Duration ttl,
+      @Value("${webflux.anime.cache.negative-ttl:5s}") Duration negativeTtl,
+      @Value("${webflux.anime.cache.catalog-version-ttl:5s}") Duration catalogVersionTtl) {
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfter(new AnimeExpiry(ttl.toNanos(), negativeTtl.toNanos()))
+        .recordStats()
+        .buildAsync();
+    this.catalogVersion = Caffeine.newBuilder()
+        .maximumSize(1)
+        .expireAfterWrite(catalogVersionTtl)
+        .buildAsync();
+  }
+
+  /**
+   * Returns the cached anime or loads it with the given loader. Concurrent misses for the same id
+   * share a single load, and an empty result is cached for the negative TTL.
+   */
+  public Mono<Anime> get(Integer id, Function<Integer, Mono<Anime>> loader) {
+    return Mono.deferContextual(context -> {
+          boolean[] loaded = new boolean[1];
+          CompletableFuture<Optional<Anime>> value = cache.get(id, (key, executor) -> {
+            loaded[0] = true;
+            return WarmupWebFilter.inheritWarmup(context, loader.apply(key))
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .toFuture();
+          });
+          if (!loaded[0] && !value.isDone() && !WarmupWebFilter.isWarmup(context)) {
+            coalescedLoads.increment();
+          }
+          // copy() so that a cancelled subscriber does not cancel the load shared with other callers
+          return Mono.fromFuture(value.copy());
+        })
+        .flatMap(Mono::justOrEmpty);
+  }
+
+  /**
+   * Returns the cached catalog version or loads it with the given loader. Writes made through this instance
+   * invalidate it right away, writes made elsewhere are seen once the catalog version TTL expires.
+   */
+  public Mono<String> getCatalogVersion(Supplier<Mono<String>> loader) {
+    return Mono.deferContextual(context -> Mono.fromFuture(catalogVersion.get(CATALOG, (key, executor) ->
+            WarmupWebFilter.inheritWarmup(context, loader.get()).toFuture())
+        .copy()));
+  }
+
+  public void invalidate(Integer id) {
+    cache.synchronous().invalidate(id);
+    invalidateCatalog();
+  }
+
+  public void invalidateAll() {
+    cache.synchronous().invalidateAll();
+    invalidateCatalog();
+  }
+
+  /**
+   * Registers a listener called after every local write, once the cached catalog version has been dropped.
+   */
+  public void addCatalogChangeListener(Runnable listener) {
+    catalogChangeListeners.add(listener);
+  }
+
+  private void invalidateCatalog() {
+    catalogVersion.synchronous().invalidateAll();
+    catalogChangeListeners.forEach(Runnable::run);
+  }
+
+  public CacheStats stats() {
+    return cache.synchronous().stats();
+  }
+
+  /**
+   * Misses that joined a load already running for the same id instead of querying the database.
+   */
+  public long coalescedLoads() {
+    return coalescedLoads.sum();
+  }
+
+  private record AnimeExpiry(long ttlNanos, long negativeTtlNanos) implements Expiry<Integer, Optional<Anime>> {
+
+    @Override
+    public long expireAfterCreate(Integer key, Optional<Anime> value, long currentTime) {
+      return value.isPresent() ? ttlNanos : negativeTtlNanos;
+    }
+
+    @Override
+    public long expireAfterUpdate(Integer key, Optional<Anime> value, long currentTime, long currentDuration) {
+      return expireAfterCreate(key, value, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(Integer key, Optional<Anime> value, long currentTime, long currentDuration) {
+      return currentDuration;
+    }
+
+  }
+
+}
@@ -0,0 +1,94 @@
+package com.emendes.webflux.service;
+
+import com.emendes.webflux.domain.Anime;
+import com.emendes.webflux.replica.ReplicaRoutingConnectionFactory;
+import com.emendes.webflux.repository.AnimeRepository;
+import com.emendes.webflux.warmup.WarmupWebFilter;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.context.ContextView;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the anime list encoded as JSON (and gzip) for the current catalog version, so listing the catalog does
+ * not read every row and run Jackson on every request. Concurrent requests for a version share one build. Local
+ * writes only drop the body, and the next request rebuilds it, so a burst of writes costs a single rebuild.
+ */
+@Component
+public class AnimeCatalogBodyCache {
+
+  private final AnimeRepository animeRepository;
+  private final ObjectMapper objectMapper;
+  private final AtomicReference<Entry> current = new AtomicReference<>();
+
+  public AnimeCatalogBodyCache(AnimeRepository animeRepository, AnimeCache animeCache, ObjectMapper objectMapper) {
+    this.animeRepository = animeRepository;
+    this.objectMapper = objectMapper;
+    animeCache.addCatalogChangeListener(this::invalidate);
+  }
+
+  public Mono<EncodedCatalog> get(String version) {
+    return Mono.deferContextual(context -> {
+      Entry entry = current.updateAndGet(existing ->
+          existing != null && existing.version().equals(version) ? existing : new Entry(version));
+      if (entry.started().compareAndSet(false, true)) {
+        build(entry, context);
+      }
+      // copy() so that a cancelled request does not cancel the build shared with other requests
+      return Mono.fromFuture(entry.body().copy());
+    });
+  }
+
+  // Read from the primary, since a lagging replica would serve the rows from before the write to every request
+  private void build(Entry entry, ContextView context) {
+    WarmupWebFilter.inheritWarmup(context, ReplicaRoutingConnectionFactory.onPrimary(animeRepository.findAll())
+            .collectList())
+        .publishOn(Schedulers.parallel())
+        .map(animes -> encode(entry.version(), animes))
+        .subscribe(entry.body()::complete, throwable -> {
+          current.compareAndSet(entry, null);
+          entry.body().completeExceptionally(throwable);
+        });
+  }
+
+  // Nothing is read here: the listener can run before the write is visible to every connection, while the next
+  // request reads the catalog version after it
+  private void invalidate() {
+    current.set(null);
+  }
+
+  private EncodedCatalog encode(String version, List<Anime> animes) {
+    try {
+      byte[] json = objectMapper.writeValueAsBytes(animes);
+      ByteArrayOutputStream gzip = new ByteArrayOutputStream(json.length / 4 + 64);
+      try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(gzip)) {
+        gzipOutputStream.write(json);
+      }
+      return new EncodedCatalog(version, json, gzip.toByteArray());
+    } catch (JsonProcessingException exception) {
+      throw new IllegalStateException(exception);
+    } catch (IOException exception) {
+      throw new UncheckedIOException(exception);
+    }
+  }
+
+  private record Entry(String version, AtomicBoolean started, CompletableFuture<EncodedCatalog> body) {
+
+    Entry(String version) {
+      this(version, new AtomicBoolean(), new CompletableFuture<>());
+    }
+
+  }
+
+}
@@ -0,0 +1,94 @@
+package com.emendes.webflux.service;
+
+import com.emendes.webflux.domain.Anime;
+import com.emendes.webflux.domain.AnimeChangeEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Publishes local catalog writes to any number of subscribers. The last {@code history-size} events are kept so
+ * that a reconnecting client can resume after the last sequence it saw. Each subscriber buffers at most
+ * {@code subscriber-buffer} events, and a subscriber that falls further behind loses its oldest events rather
+ * than holding back the others.
+ * <p>
+ * Sequences start from the current time in microseconds. A client resuming with a sequence from an earlier run
+ * gets a RESET instead of silently missing the events in between.
+ */
+@Component
+public class AnimeChangeFeed {
+
+  private final Sinks.Many<AnimeChangeEvent> sink;
+  private final int historySize;
+  private final int subscriberBuffer;
+  private final long firstSequence;
+  private final LongAdder dropped = new LongAdder();
+  private long sequence;
+  private volatile long lastSequence;
+
+  public AnimeChangeFeed(
+      @Value("${webflux.anime.changes.history-size:1024}") int historySize,
+      @Value("${webflux.anime.changes.subscriber-buffer:256}") int subscriberBuffer) {
+    this.sink = Sinks.many().replay().limit(historySize);
+    this.historySize = historySize;
+    this.subscriberBuffer = subscriberBuffer;
+    this.firstSequence = System.currentTimeMillis() * 1000;
+    this.sequence = firstSequence;
+    this.lastSequence = firstSequence;
+  }
+
+  public void created(Anime anime) {
+    publish(AnimeChangeEvent.Type.CREATED, anime.getId(), anime.getName());
+  }
+
+  public void createdAll(List<Anime> animes) {
+    animes.forEach(this::created);
+  }
+
+  public void updated(Anime anime) {
+    publish(AnimeChangeEvent.Type.UPDATED, anime.getId(), anime.getName());
+  }
+
+  public void deleted(int id) {
+    publish(AnimeChangeEvent.Type.DELETED, id, null);
+  }
+
+  // Sequence and emission under one lock, so that the sink sees events in sequence order from a single thread
+  private synchronized void publish(AnimeChangeEvent.Type type, Integer id, String name) {
+    AnimeChangeEvent event = new AnimeChangeEvent(++sequence, type, id, name);
+    sink.tryEmitNext(event);
+    lastSequence = event.getSequence();
+  }
+
+  /**
+   * Events published after the given sequence, then live events. A null sequence means live events only.
+   */
+  public Flux<AnimeChangeEvent> changes(Long afterSequence) {
+    return Flux.defer(() -> {
+      // Events published between this read and the subscription below are replayed by the sink, not lost
+      long current = lastSequence;
+      long after = afterSequence == null ? current : afterSequence;
+      boolean reset = after > current || after < Math.max(firstSequence, current - historySize);
+      long from = reset ? current : after;
+
+      Flux<AnimeChangeEvent> events = sink.asFlux()
+          .filter(event -> event.getSequence() > from)
+          .onBackpressureBuffer(subscriberBuffer, event -> dropped.increment(), BufferOverflowStrategy.DROP_OLDEST);
+      return reset ? events.startWith(AnimeChangeEvent.reset(current)) : events;
+    });
+  }
+
+  public int subscribers() {
+    return sink.currentSubscriberCount();
+  }
+
+  public long dropped() {
+    return dropped.sum();
+  }
+
+}
@@ -0,0 +1,81 @@
+package com.emendes.webflux.service;
+
+import com.emendes.webflux.domain.Anime;
+import com.emendes.webflux.domain.AnimeImportResult;
+import com.emendes.webflux.repository.AnimeRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Slf4j
+@Service
+public class AnimeImportService {
+
+  private final AnimeRepository animeRepository;
+  private final AnimeCache animeCache;
+  private final AnimeSuggestionIndex animeSuggestionIndex;
+  private final AnimeChangeFeed animeChangeFeed;
+  private final int windowSize;
+
+  public AnimeImportService(
+      AnimeRepository animeRepository,
+      AnimeCache animeCache,
+      AnimeSuggestionIndex animeSuggestionIndex,
+      AnimeChangeFeed animeChangeFeed,
+      @Value("${webflux.anime.import.window-size:1000}") int windowSize) {
+    this.animeRepository = animeRepository;
+    this.animeCache = animeCache;
+    this.animeSuggestionIndex = animeSuggestionIndex;
+    this.animeChangeFeed = animeChangeFeed;
+    this.windowSize = windowSize;
+  }
+
+  /**
+   * Imports the animes window by window, each window in its own transaction. At most two windows are held
+   * in memory at a time, whatever the size of the input.
+   */
+  public Flux<AnimeImportResult> importAll(Flux<Anime> animes) {
+    return animes.index()
+        .buffer(windowSize)
+        .index()
+        .concatMap(window -> importWindow(window.getT1(), window.getT2()), 1);
+  }
+
+  private Mono<AnimeImportResult> importWindow(long window, List<Tuple2<Long, Anime>> elements) {
+    List<Anime> validAnimes = new ArrayList<>(elements.size());
+    List<AnimeImportResult.Failure> failures = new ArrayList<>();
+    for (Tuple2<Long, Anime> element : elements) {
+      if (StringUtils.hasText(element.getT2().getName())) {
+        validAnimes.add(element.getT2());
+      } else {
+        failures.add(new AnimeImportResult.Failure(element.getT1(), "Invalid name"));
+      }
+    }
+
+    if (validAnimes.isEmpty()) {
+      return Mono.just(new AnimeImportResult(window, 0, failures, null));
+    }
+
+    return animeRepository.insertAll(validAnimes)
+        .collectList()
+        .doOnNext(savedAnimes -> {
+          savedAnimes.forEach(savedAnime -> animeCache.invalidate(savedAnime.getId()));
+          animeSuggestionIndex.putAll(savedAnimes);
+          animeChangeFeed.createdAll(savedAnimes);
+        })
+        .map(savedAnimes -> new AnimeImportResult(window, savedAnimes.size(), failures, null))
+        .onErrorResume(DataAccessException.class, exception -> {
+          log.warn("import window {} rolled back: {}", window, exception.getMessage());
+          return Mono.just(new AnimeImportResult(window, 0, failures, "Window rolled back"));
+        });
+  }
+
+}
@@ -0,0 +1,12 @@
+package com.emendes.webflux.service;
+
+import com.emendes.webflux.handler.ExpectedResponseStatusException;
+import org.springframework.http.HttpStatus;
+
+public class AnimeModifiedException extends ExpectedResponseStatusException {
+
+  public AnimeModifiedException() {
+    super(HttpStatus.PRECONDITION_FAILED, "Anime was modified or does not exist");
+  }
+
+}
@@ -0,0 +1,12 @@
+package com.emendes.webflux.service;
+
+import com.emendes.webflux.handler.ExpectedResponseStatusException;
+import org.springframework.http.HttpStatus;
+
+public class AnimeNotFoundException extends ExpectedResponseStatusException {
+
+  public AnimeNotFoundException() {
+    super(HttpStatus.NOT_FOUND, "Anime not found");
+  }
+
+}
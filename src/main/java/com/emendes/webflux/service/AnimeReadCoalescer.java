@@ -0,0 +1,36 @@
+package com.emendes.webflux.service;
+
+import com.emendes.webflux.domain.Anime;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Shares concurrent identical anime reads. Reads by id are already coalesced by {@link AnimeCache}, whose
+ * concurrent misses share one load, so only the full listing goes through here.
+ */
+@Component
+public class AnimeReadCoalescer {
+
+  private static final Boolean CATALOG = Boolean.TRUE;
+
+  private final SingleFlight<Boolean, List<Anime>> catalog = new SingleFlight<>();
+
+  /**
+   * Lists the catalog with the given loader, or joins a listing already running. The rows are collected so
+   * that callers joining late still get every row.
+   */
+  public Flux<Anime> findAll(Supplier<Flux<Anime>> loader) {
+    return catalog.execute(CATALOG, () -> loader.get().collectList())
+        .flatMapIterable(Function.identity());
+  }
+
+  public SingleFlight<Boolean, List<Anime>> catalog() {
+    return catalog;
+  }
+
+}
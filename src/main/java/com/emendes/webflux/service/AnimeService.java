@@ -1,58 +1,229 @@
 package com.emendes.webflux.service;
 
 import com.emendes.webflux.domain.Anime;
+import com.emendes.webflux.domain.AnimeChangeEvent;
+import com.emendes.webflux.domain.AnimeSearchHit;
+import com.emendes.webflux.domain.AnimeSuggestion;
+import com.emendes.webflux.replica.ReplicaRoutingConnectionFactory;
 import com.emendes.webflux.repository.AnimeRepository;
 import io.netty.util.internal.StringUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
 
 @Slf4j
 @RequiredArgsConstructor
 @Service
 public class AnimeService {
 
+  public static final int MAX_PAGE_SIZE = 500;
+  public static final int STREAM_CHUNK_SIZE = 256;
+  public static final int MAX_SUGGESTIONS = 50;
+
+  // Shared publishers, fresh exceptions: WebFlux checkpoints attach suppressed traces to the error they see, so a
+  // single exception instance would keep growing
+  private static final Mono<?> ANIME_NOT_FOUND = Mono.error(AnimeNotFoundException::new);
+  private static final Mono<?> ANIME_MODIFIED = Mono.error(AnimeModifiedException::new);
+
   private final AnimeRepository animeRepository;
+  private final AnimeCache animeCache;
+  private final AnimeSuggestionIndex animeSuggestionIndex;
+  private final AnimeCatalogBodyCache animeCatalogBodyCache;
+  private final AnimeReadCoalescer animeReadCoalescer;
+  private final AnimeChangeFeed animeChangeFeed;
 
   public Flux<Anime> findAll() {
-    return animeRepository.findAll();
+    return animeReadCoalescer.findAll(animeRepository::findAll);
+  }
+
+  // Cached values are shared by every user, so they are read from the primary: a replica can still miss the write
+  // that invalidated them
+  public Mono<String> findCatalogVersion() {
+    return animeCache.getCatalogVersion(() ->
+        ReplicaRoutingConnectionFactory.onPrimary(animeRepository.findCatalogVersion()));
+  }
+
+  /**
+   * The whole catalog, already encoded as a JSON array, for the given catalog version.
+   */
+  public Mono<EncodedCatalog> findAllEncoded(String catalogVersion) {
+    return animeCatalogBodyCache.get(catalogVersion);
+  }
+
+  /**
+   * Catalog writes made through this instance after the given sequence, then as they happen.
+   */
+  public Flux<AnimeChangeEvent> changes(Long afterSequence) {
+    return animeChangeFeed.changes(afterSequence);
+  }
+
+  public Flux<Anime> findPage(Integer afterId, int limit) {
+    return animeRepository.findPageAfterId(afterId == null ? 0 : afterId, pageSize(limit));
+  }
+
+  public static int pageSize(int limit) {
+    return Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+  }
+
+  /**
+   * Case-insensitive prefix search, ordered by lower-cased name and id. The prefix becomes a half-open
+   * range [prefix, next prefix) so that the index is used even with a generic plan for the prepared query.
+   */
+  public Flux<Anime> searchByPrefix(String prefix, String afterName, int afterId, int limit) {
+    String from = prefix.toLowerCase(Locale.ROOT);
+    return animeRepository.searchByNamePrefix(from, prefixUpperBound(from), afterName, afterId, pageSize(limit));
+  }
+
+  // The smallest string above every string that starts with the prefix, or null when there is none. The surrogate
+  // block is skipped, since a lone surrogate is not valid UTF-8, and a trailing U+10FFFF carries into the code
+  // point before it
+  private static String prefixUpperBound(String prefix) {
+    int end = prefix.length();
+    while (end > 0) {
+      int codePoint = prefix.codePointBefore(end);
+      end -= Character.charCount(codePoint);
+      if (codePoint < Character.MAX_CODE_POINT) {
+        int next = codePoint + 1 == Character.MIN_SURROGATE ? Character.MAX_SURROGATE + 1 : codePoint + 1;
+        return prefix.substring(0, end) + Character.toString(next);
+      }
+    }
+    return null;
+  }
+
+  public Flux<AnimeSearchHit> searchFullText(String query, float afterRank, int afterId, int limit) {
+    return animeRepository.searchByNameFullText(query, afterRank, afterId, pageSize(limit));
+  }
+
+  public List<AnimeSuggestion> suggest(String prefix, int limit) {
+    return animeSuggestionIndex.suggest(prefix, Math.min(Math.max(limit, 1), MAX_SUGGESTIONS));
+  }
+
+  public Flux<Anime> streamAll() {
+    return streamAfter(0);
+  }
+
+  // The next chunk is only queried once the subscriber has drained the current one.
+  private Flux<Anime> streamAfter(int afterId) {
+    return findPage(afterId, STREAM_CHUNK_SIZE)
+        .collectList()
+        .flatMapMany(page -> {
+          if (page.size() < STREAM_CHUNK_SIZE) {
+            return Flux.fromIterable(page);
+          }
+          int lastId = page.get(page.size() - 1).getId();
+          return Flux.fromIterable(page).concatWith(Flux.defer(() -> streamAfter(lastId)));
+        });
   }
 
   public Mono<Anime> findById(Integer id) {
-    return animeRepository.findById(id)
+    return animeCache.get(id, key -> ReplicaRoutingConnectionFactory.onPrimary(animeRepository.findById(key)))
         .switchIfEmpty(monoResponseStatusNotFoundException());
   }
 
+  // A null id and version always insert, so a client-supplied id cannot bypass the identity sequence
   public Mono<Anime> save(Anime anime) {
-    return animeRepository.save(anime);
+    return animeRepository.save(anime.withId(null).withVersion(null))
+        .doOnNext(savedAnime -> {
+          animeCache.invalidate(savedAnime.getId());
+          animeSuggestionIndex.put(savedAnime);
+          animeChangeFeed.created(savedAnime);
+        });
   }
 
   public Mono<Void> update(Anime anime) {
-    return findById(anime.getId())
-        .flatMap(animeToBeUpdated -> animeRepository.save(anime))
+    return animeRepository.updateName(anime.getId(), anime.getName())
+        .switchIfEmpty(monoResponseStatusNotFoundException())
+        .doOnNext(updatedAnime -> {
+          animeCache.invalidate(updatedAnime.getId());
+          animeSuggestionIndex.put(updatedAnime);
+          animeChangeFeed.updated(updatedAnime);
+        })
+        .then();
+  }
+
+  /**
+   * Updates the anime only if it is still at the expected version, or only if it exists when the expected
+   * version is null. Fails with 412 otherwise.
+   */
+  public Mono<Void> update(Anime anime, Integer expectedVersion) {
+    Mono<Anime> updated = expectedVersion == null
+        ? animeRepository.updateName(anime.getId(), anime.getName())
+        : animeRepository.updateNameIfVersion(anime.getId(), anime.getName(), expectedVersion);
+
+    return updated
+        .switchIfEmpty(monoResponseStatusPreconditionFailedException())
+        .doOnNext(updatedAnime -> {
+          animeCache.invalidate(updatedAnime.getId());
+          animeSuggestionIndex.put(updatedAnime);
+          animeChangeFeed.updated(updatedAnime);
+        })
         .then();
   }
 
   public Mono<Void> delete(int id) {
-    return animeRepository.deleteById(id);
+    return animeRepository.deleteAnimeById(id)
+        .filter(count -> count > 0)
+        .switchIfEmpty(monoResponseStatusNotFoundException())
+        .doOnNext(count -> {
+          animeCache.invalidate(id);
+          animeSuggestionIndex.remove(id);
+          animeChangeFeed.deleted(id);
+        })
+        .then();
   }
 
+  /**
+   * Deletes the anime only if it is still at the expected version, or only if it exists when the expected
+   * version is null. Fails with 412 otherwise.
+   */
+  public Mono<Void> delete(int id, Integer expectedVersion) {
+    Mono<Integer> deleted = expectedVersion == null
+        ? animeRepository.deleteAnimeById(id)
+        : animeRepository.deleteAnimeByIdIfVersion(id, expectedVersion);
+
+    return deleted
+        .filter(count -> count > 0)
+        .switchIfEmpty(monoResponseStatusPreconditionFailedException())
+        .doOnNext(count -> {
+          animeCache.invalidate(id);
+          animeSuggestionIndex.remove(id);
+          animeChangeFeed.deleted(id);
+        })
+        .then();
+  }
+
+  @SuppressWarnings("unchecked")
   public <T> Mono<T> monoResponseStatusNotFoundException() {
-    return Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Anime not found"));
+    return (Mono<T>) ANIME_NOT_FOUND;
+  }
+
+  @SuppressWarnings("unchecked")
+  public <T> Mono<T> monoResponseStatusPreconditionFailedException() {
+    return (Mono<T>) ANIME_MODIFIED;
   }
 
-  @Transactional
+  // insertAll commits before it completes, so the caches, the index and the feed hear about the animes only once
+  // they are stored
   public Flux<Anime> saveAll(List<Anime> animeList) {
-    return animeRepository.saveAll(animeList)
-        .doOnNext(this::throwResponseStatusExceptionWhenEmptyName);
+    return Flux.fromIterable(animeList)
+        .doOnNext(this::throwResponseStatusExceptionWhenEmptyName)
+        .thenMany(Flux.defer(() -> animeRepository.insertAll(animeList)))
+        .collectList()
+        .doOnNext(savedAnimes -> {
+          savedAnimes.forEach(savedAnime -> animeCache.invalidate(savedAnime.getId()));
+          animeSuggestionIndex.putAll(savedAnimes);
+          animeChangeFeed.createdAll(savedAnimes);
+        })
+        .flatMapIterable(Function.identity());
   }
 
   private void throwResponseStatusExceptionWhenEmptyName(Anime anime) {
@@ -0,0 +1,242 @@
+package com.emendes.webflux.service;
+
+import com.emendes.webflux.domain.Anime;
+import com.emendes.webflux.domain.AnimeSuggestion;
+import com.emendes.webflux.replica.ReplicaRoutingConnectionFactory;
+import com.emendes.webflux.repository.AnimeRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Prefix index over anime names for type-ahead. Names are kept in immutable parallel arrays sorted by
+ * lower-cased name and id, and looked up with a binary search. Readers only read the current snapshot and never
+ * lock; writers build a new snapshot by merging their changes into the current one and swap it in.
+ * <p>
+ * The index is loaded once at startup and then follows the writes made through this instance. Traffic can arrive
+ * while it loads, so ids written during the load keep their written state, removals included, over the loaded rows.
+ */
+@Slf4j
+@Component
+public class AnimeSuggestionIndex implements ApplicationRunner {
+
+  private static final Comparator<Entry> ORDER = Comparator.comparing(Entry::key).thenComparingInt(Entry::id);
+
+  private final AnimeRepository animeRepository;
+  private final Duration loadTimeout;
+  private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.EMPTY);
+  private final Object writeLock = new Object();
+  // Guarded by writeLock; null unless a load is running
+  private Set<Integer> writtenDuringLoad;
+
+  public AnimeSuggestionIndex(
+      AnimeRepository animeRepository,
+      @Value("${webflux.anime.suggest.load-timeout:30s}") Duration loadTimeout) {
+    this.animeRepository = animeRepository;
+    this.loadTimeout = loadTimeout;
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    Mono.defer(this::load)
+        .timeout(loadTimeout)
+        .doOnSuccess(v -> log.info("Suggestion index loaded {} names, about {} KiB", size(), estimatedBytes() / 1024))
+        .onErrorResume(throwable -> {
+          log.warn("Suggestion index could not be loaded: {}", throwable.getMessage());
+          return Mono.empty();
+        })
+        .block();
+  }
+
+  // Read from the primary: later local writes update the index in place, so rows missing here stay missing
+  public Mono<Void> load() {
+    return Mono.defer(() -> {
+      synchronized (writeLock) {
+        writtenDuringLoad = new HashSet<>();
+      }
+      return ReplicaRoutingConnectionFactory.onPrimary(animeRepository.findAll())
+          .map(Entry::of)
+          .collectList()
+          .doOnNext(this::publishLoaded)
+          .doFinally(signal -> {
+            synchronized (writeLock) {
+              writtenDuringLoad = null;
+            }
+          })
+          .then();
+    });
+  }
+
+  // Keeps only the entries written during the load from the current snapshot and adds the loaded rows for every
+  // other id
+  private void publishLoaded(List<Entry> loaded) {
+    synchronized (writeLock) {
+      Snapshot current = snapshot.get();
+      Set<Integer> stale = new HashSet<>();
+      for (int id : current.ids) {
+        if (!writtenDuringLoad.contains(id)) {
+          stale.add(id);
+        }
+      }
+      List<Entry> additions = loaded.stream().filter(entry -> !writtenDuringLoad.contains(entry.id())).toList();
+      snapshot.set(Snapshot.merge(current, stale, additions));
+    }
+  }
+
+  public List<AnimeSuggestion> suggest(String prefix, int limit) {
+    Snapshot current = snapshot.get();
+    String key = prefix.toLowerCase(Locale.ROOT);
+    List<AnimeSuggestion> suggestions = new ArrayList<>(Math.min(limit, 16));
+    for (int i = current.lowerBound(key); i < current.keys.length && suggestions.size() < limit; i++) {
+      if (!current.keys[i].startsWith(key)) {
+        break;
+      }
+      suggestions.add(new AnimeSuggestion(current.ids[i], current.names[i]));
+    }
+    return suggestions;
+  }
+
+  public void put(Anime anime) {
+    putAll(List.of(anime));
+  }
+
+  public void putAll(Collection<Anime> animes) {
+    Set<Integer> replaced = new HashSet<>();
+    List<Entry> entries = new ArrayList<>(animes.size());
+    for (Anime anime : animes) {
+      replaced.add(anime.getId());
+      entries.add(Entry.of(anime));
+    }
+    synchronized (writeLock) {
+      recordWrites(replaced);
+      snapshot.set(Snapshot.merge(snapshot.get(), replaced, entries));
+    }
+  }
+
+  public void remove(int id) {
+    synchronized (writeLock) {
+      recordWrites(Set.of(id));
+      snapshot.set(Snapshot.merge(snapshot.get(), Set.of(id), List.of()));
+    }
+  }
+
+  private void recordWrites(Set<Integer> ids) {
+    if (writtenDuringLoad != null) {
+      writtenDuringLoad.addAll(ids);
+    }
+  }
+
+  public int size() {
+    return snapshot.get().keys.length;
+  }
+
+  /**
+   * Estimated heap retained by the current snapshot, assuming compressed oops and compact strings.
+   * Strings shared with the key array (names that are already lower case) are counted once.
+   */
+  public long estimatedBytes() {
+    Snapshot current = snapshot.get();
+    int length = current.keys.length;
+    long bytes = 3 * align(16L + 4L * length);
+    for (int i = 0; i < length; i++) {
+      bytes += stringBytes(current.keys[i]);
+      if (current.names[i] != current.keys[i]) {
+        bytes += stringBytes(current.names[i]);
+      }
+    }
+    return bytes;
+  }
+
+  private static long stringBytes(String value) {
+    boolean latin1 = value.chars().allMatch(c -> c <= 0xFF);
+    return 24 + align(16L + (latin1 ? value.length() : 2L * value.length()));
+  }
+
+  private static long align(long bytes) {
+    return (bytes + 7) & ~7L;
+  }
+
+  private record Entry(String key, int id, String name) {
+
+    // toLowerCase returns the name itself when it is already lower case, so both arrays share the string
+    static Entry of(Anime anime) {
+      return new Entry(anime.getName().toLowerCase(Locale.ROOT), anime.getId(), anime.getName());
+    }
+
+  }
+
+  private static final class Snapshot {
+
+    static final Snapshot EMPTY = new Snapshot(new String[0], new int[0], new String[0]);
+
+    final String[] keys;
+    final int[] ids;
+    final String[] names;
+
+    Snapshot(String[] keys, int[] ids, String[] names) {
+      this.keys = keys;
+      this.ids = ids;
+      this.names = names;
+    }
+
+    int lowerBound(String key) {
+      int low = 0;
+      int high = keys.length;
+      while (low < high) {
+        int middle = (low + high) >>> 1;
+        if (keys[middle].compareTo(key) < 0) {
+          low = middle + 1;
+        } else {
+          high = middle;
+        }
+      }
+      return low;
+    }
+
+    // Linear merge of the sorted snapshot, minus the removed ids, with the sorted additions.
+    static Snapshot merge(Snapshot current, Set<Integer> removed, List<Entry> additions) {
+      List<Entry> added = new ArrayList<>(additions);
+      added.sort(ORDER);
+
+      int capacity = current.keys.length + added.size();
+      String[] keys = new String[capacity];
+      int[] ids = new int[capacity];
+      String[] names = new String[capacity];
+      int size = 0;
+      int next = 0;
+
+      for (int i = 0; i < current.keys.length; i++) {
+        if (removed.contains(current.ids[i])) {
+          continue;
+        }
+        Entry existing = new Entry(current.keys[i], current.ids[i], current.names[i]);
+        while (next < added.size() && ORDER.compare(added.get(next), existing) < 0) {
+          Entry entry = added.get(next++);
+          keys[size] = entry.key();
+          ids[size] = entry.id();
+          names[size++] = entry.name();
+        }
+        keys[size] = existing.key();
+        ids[size] = existing.id();
+        names[size++] = existing.name();
+      }
+      while (next < added.size()) {
+        Entry entry = added.get(next++);
+        keys[size] = entry.key();
+        ids[size] = entry.id();
+        names[size++] = entry.name();
+      }
+
+      return new Snapshot(Arrays.copyOf(keys, size), Arrays.copyOf(ids, size), Arrays.copyOf(names, size));
+    }
+
+  }
+
+}
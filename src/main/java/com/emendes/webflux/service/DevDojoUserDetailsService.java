@@ -1,22 +1,69 @@
 package com.emendes.webflux.service;
 
 import com.emendes.webflux.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
+import com.emendes.webflux.warmup.WarmupWebFilter;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
-@RequiredArgsConstructor
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
 @Service
 public class DevDojoUserDetailsService implements ReactiveUserDetailsService {
 
   private final UserRepository userRepository;
+  private final AsyncCache<String, UserDetails> cache;
+  private final List<Consumer<String>> evictionListeners = new CopyOnWriteArrayList<>();
+
+  public DevDojoUserDetailsService(
+      UserRepository userRepository,
+      @Value("${webflux.security.user-cache.maximum-size:1000}") long maximumSize,
+      @Value("${webflux.security.user-cache.ttl:5m}") Duration ttl) {
+    this.userRepository = userRepository;
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterWrite(ttl)
+        .recordStats()
+        .buildAsync();
+  }
 
   @Override
   public Mono<UserDetails> findByUsername(String username) {
-    return userRepository.findByUsername(username)
-        .cast(UserDetails.class);
+    // Unknown usernames are not cached: the loader completes with null and Caffeine drops the entry.
+    return Mono.deferContextual(context -> Mono.fromFuture(cache.get(username, (key, executor) ->
+            WarmupWebFilter.inheritWarmup(context, userRepository.findByUsername(key))
+                .cast(UserDetails.class)
+                .toFuture())
+        .copy()));
+  }
+
+  public void evict(String username) {
+    cache.synchronous().invalidate(username);
+    evictionListeners.forEach(listener -> listener.accept(username));
+  }
+
+  public void evictAll() {
+    cache.synchronous().invalidateAll();
+    evictionListeners.forEach(listener -> listener.accept(null));
+  }
+
+  /**
+   * Registers a callback run on every eviction, receiving the evicted username or null when all users were evicted.
+   */
+  public void addEvictionListener(Consumer<String> listener) {
+    evictionListeners.add(listener);
+  }
+
+  public CacheStats stats() {
+    return cache.synchronous().stats();
   }
 
 }
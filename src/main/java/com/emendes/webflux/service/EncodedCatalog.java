@@ -0,0 +1,7 @@
+package com.emendes.webflux.service;
+
+/**
+ * The anime list encoded once as a JSON array, plus a gzip copy, for the catalog version it was built for.
+ */
+public record EncodedCatalog(String version, byte[] json, byte[] gzip) {
+}
@@ -0,0 +1,71 @@
+package com.emendes.webflux.service;
+
+import com.emendes.webflux.warmup.WarmupWebFilter;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicates in-flight work: callers asking for a key while a load for it is running subscribe to that load
+ * instead of starting their own. Nothing is kept once the load terminates, this is not a cache.
+ * <p>
+ * The shared load is cancelled only when every subscriber has cancelled, and a load that completed, failed or
+ * was cancelled is removed so that the next caller starts a fresh one. Warm-up requests are not counted.
+ */
+public final class SingleFlight<K, V> {
+
+  private final ConcurrentMap<K, Flight> inFlight = new ConcurrentHashMap<>();
+  private final LongAdder executed = new LongAdder();
+  private final LongAdder coalesced = new LongAdder();
+
+  public Mono<V> execute(K key, Supplier<Mono<V>> loader) {
+    return Mono.deferContextual(context -> {
+      boolean counted = !WarmupWebFilter.isWarmup(context);
+      Flight flight = new Flight(key, Mono.defer(loader));
+      Flight existing = inFlight.putIfAbsent(key, flight);
+      if (existing != null) {
+        if (counted) {
+          coalesced.increment();
+        }
+        return existing.result;
+      }
+      if (counted) {
+        executed.increment();
+      }
+      return flight.result;
+    });
+  }
+
+  public long executed() {
+    return executed.sum();
+  }
+
+  public long coalesced() {
+    return coalesced.sum();
+  }
+
+  public int inFlight() {
+    return inFlight.size();
+  }
+
+  private final class Flight {
+
+    private final Mono<V> result;
+
+    private Flight(K key, Mono<V> source) {
+      // replay(1) hands the value to callers that join between completion and removal, refCount(1) cancels the
+      // load once its last subscriber is gone
+      this.result = source
+          .doFinally(signal -> inFlight.remove(key, this))
+          .flux()
+          .replay(1)
+          .refCount(1)
+          .singleOrEmpty();
+    }
+
+  }
+
+}
@@ -0,0 +1,142 @@
+package com.emendes.webflux.warmup;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Sends synthetic requests through the whole server stack (Netty, the security filter chain, AnimeController,
+ * Jackson, the R2DBC driver and the caches) before the instance reports ready: readiness only switches to
+ * ACCEPTING_TRAFFIC once every ApplicationReadyEvent listener has returned, and by then the application runners
+ * have already opened the connection pool and loaded the suggestion index.
+ * <p>
+ * The requests are read-only. They go to the loopback address and are marked by {@link WarmupWebFilter}, so they
+ * are neither rate limited nor recorded in http.server.requests or the other business meters; a
+ * {@link WarmupCompletedEvent} lets meters that cannot see the mark leave out what was counted until then. Without
+ * credentials only the unauthenticated path is warmed up.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "webflux.warmup.enabled", havingValue = "true", matchIfMissing = true)
+public class StartupWarmup {
+
+  private static final int OPERATIONS = 6;
+
+  private final WarmupWebFilter warmupWebFilter;
+  private final int passes;
+  private final int requestsPerPass;
+  private final int concurrency;
+  private final Duration timeout;
+  private final String username;
+  private final String password;
+
+  public StartupWarmup(
+      WarmupWebFilter warmupWebFilter,
+      @Value("${webflux.warmup.passes:10}") int passes,
+      @Value("${webflux.warmup.requests-per-pass:200}") int requestsPerPass,
+      @Value("${webflux.warmup.concurrency:8}") int concurrency,
+      @Value("${webflux.warmup.timeout:60s}") Duration timeout,
+      @Value("${webflux.warmup.username:}") String username,
+      @Value("${webflux.warmup.password:}") String password) {
+    this.warmupWebFilter = warmupWebFilter;
+    this.passes = passes;
+    this.requestsPerPass = requestsPerPass;
+    this.concurrency = concurrency;
+    this.timeout = timeout;
+    this.username = username;
+    this.password = password;
+  }
+
+  @EventListener
+  public void warmUp(ApplicationReadyEvent event) {
+    if (!(event.getApplicationContext() instanceof WebServerApplicationContext context)
+        || context.getWebServer() == null || context.getWebServer().getPort() <= 0) {
+      log.debug("No web server is listening, skipping warm-up");
+      return;
+    }
+    if (!StringUtils.hasText(username)) {
+      log.info("No warm-up credentials configured, only the unauthenticated path will be warmed up");
+    }
+
+    WebClient client = WebClient.builder()
+        .baseUrl("http://127.0.0.1:" + context.getWebServer().getPort())
+        .defaultHeaders(headers -> {
+          headers.set(WarmupWebFilter.TOKEN_HEADER, warmupWebFilter.token());
+          if (StringUtils.hasText(username)) {
+            headers.setBasicAuth(username, password);
+          }
+        })
+        .build();
+
+    long started = System.nanoTime();
+    long[][] latencies = new long[passes][];
+    Flux.range(0, passes)
+        .concatMap(pass -> runPass(client).doOnNext(passLatencies -> latencies[pass] = passLatencies))
+        .then()
+        .timeout(timeout)
+        .onErrorResume(throwable -> {
+          log.warn("Warm-up stopped early: {}", throwable.getMessage());
+          return Mono.empty();
+        })
+        .block();
+    event.getApplicationContext().publishEvent(new WarmupCompletedEvent(this));
+
+    long[] first = latencies.length > 0 ? latencies[0] : null;
+    long[] last = Arrays.stream(latencies).filter(Objects::nonNull).reduce((a, b) -> b).orElse(null);
+    if (first == null) {
+      log.warn("Warm-up did not complete a single pass in {}", timeout);
+      return;
+    }
+    log.info("Warm-up took {} ms for {} passes of {} requests, p99 went from {} ms on the first pass to {} ms on the last",
+        Duration.ofNanos(System.nanoTime() - started).toMillis(), passes, requestsPerPass,
+        p99Millis(first), p99Millis(last));
+  }
+
+  private Mono<long[]> runPass(WebClient client) {
+    long[] latencies = new long[requestsPerPass];
+    return Flux.range(0, requestsPerPass)
+        .flatMap(i -> {
+          long requestStarted = System.nanoTime();
+          return request(client, i)
+              .onErrorResume(throwable -> Mono.empty())
+              .doFinally(signal -> latencies[i] = System.nanoTime() - requestStarted);
+        }, concurrency)
+        .then(Mono.fromSupplier(() -> latencies));
+  }
+
+  // Every response body is read and released whatever the status, so error paths get warmed up as well
+  private Mono<Void> request(WebClient client, int i) {
+    WebClient.RequestHeadersSpec<?> request = switch (i % OPERATIONS) {
+      case 0 -> client.get().uri("/animes");
+      case 1 -> client.get().uri("/animes").header(HttpHeaders.ACCEPT_ENCODING, "gzip");
+      case 2 -> client.get().uri("/animes/{id}", i / OPERATIONS % 100 + 1);
+      case 3 -> client.get().uri("/animes?limit=20");
+      case 4 -> client.get().uri("/animes/suggest?q=a");
+      default -> client.get().uri("/animes/search?q=a");
+    };
+    return request.exchangeToMono(response -> response.releaseBody());
+  }
+
+  private static long p99Millis(long[] latencies) {
+    if (latencies.length == 0) {
+      return 0;
+    }
+    long[] sorted = latencies.clone();
+    Arrays.sort(sorted);
+    return Duration.ofNanos(sorted[(int) Math.ceil(sorted.length * 0.99) - 1]).toMillis();
+  }
+
+}
@@ -0,0 +1,14 @@
+package com.emendes.webflux.warmup;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published by {@link StartupWarmup} once its requests are done, whether the warm-up completed or stopped early.
+ */
+public class WarmupCompletedEvent extends ApplicationEvent {
+
+  public WarmupCompletedEvent(Object source) {
+    super(source);
+  }
+
+}
@@ -0,0 +1,69 @@
+package com.emendes.webflux.warmup;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.UUID;
+
+/**
+ * Marks the synthetic requests sent by {@link StartupWarmup}. They carry a token generated when the process starts,
+ * so clients cannot pass for warm-up traffic to skip rate limiting or metrics. The mark is set on the exchange and
+ * in the Reactor context, so meters recorded below the web layer can leave warm-up traffic out as well.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class WarmupWebFilter implements WebFilter {
+
+  public static final String WARMUP_TAG = "warmup";
+
+  public static final String TOKEN_HEADER = "X-Warmup-Token";
+
+  private static final String WARMUP_ATTRIBUTE = WarmupWebFilter.class.getName() + ".WARMUP";
+  private static final Context WARMUP_CONTEXT = Context.of(WARMUP_ATTRIBUTE, Boolean.TRUE);
+
+  private final byte[] token = UUID.randomUUID().toString().getBytes(StandardCharsets.US_ASCII);
+
+  public static boolean isWarmup(ServerWebExchange exchange) {
+    return exchange.getAttribute(WARMUP_ATTRIBUTE) != null;
+  }
+
+  public static boolean isWarmup(ContextView context) {
+    return context.hasKey(WARMUP_ATTRIBUTE);
+  }
+
+  public static <T> Mono<T> warmup(Mono<T> mono) {
+    return mono.contextWrite(WARMUP_CONTEXT);
+  }
+
+  /**
+   * Carries the warm-up mark of the given context over to a publisher subscribed outside of it, such as a load
+   * shared through a cache.
+   */
+  public static <T> Mono<T> inheritWarmup(ContextView context, Mono<T> mono) {
+    return isWarmup(context) ? warmup(mono) : mono;
+  }
+
+  @Override
+  public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+    String header = exchange.getRequest().getHeaders().getFirst(TOKEN_HEADER);
+    if (header != null && MessageDigest.isEqual(token, header.getBytes(StandardCharsets.US_ASCII))) {
+      exchange.getAttributes().put(WARMUP_ATTRIBUTE, Boolean.TRUE);
+      return warmup(chain.filter(exchange));
+    }
+    return chain.filter(exchange);
+  }
+
+  public String token() {
+    return new String(token, StandardCharsets.US_ASCII);
+  }
+
+}
@@ -0,0 +1 @@
+ALTER TABLE t_anime ADD COLUMN IF NOT EXISTS version INTEGER NOT NULL DEFAULT 0;
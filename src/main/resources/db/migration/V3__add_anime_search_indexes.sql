@@ -0,0 +1,5 @@
+-- Prefix search: range scans over lower(name) in code point order, with id as the keyset tie-breaker
+CREATE INDEX IF NOT EXISTS idx_anime_lower_name_id ON t_anime ((lower(name) COLLATE "C"), id);
+
+-- Ranked full-text search
+CREATE INDEX IF NOT EXISTS idx_anime_name_tsvector ON t_anime USING GIN (to_tsvector('simple', name));
@@ -0,0 +1,2 @@
+-- UserRepository.findByUsername runs on every authentication that misses the user cache
+CREATE UNIQUE INDEX IF NOT EXISTS uk_devdojo_user_username ON t_devdojo_user (username);
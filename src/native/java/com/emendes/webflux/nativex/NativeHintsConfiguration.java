@@ -0,0 +1,45 @@
+package com.emendes.webflux.nativex;
+
+import com.emendes.webflux.domain.*;
+import com.emendes.webflux.repository.AnimeBatchRepositoryImpl;
+import com.emendes.webflux.repository.AnimeRepository;
+import com.emendes.webflux.repository.UserRepository;
+import org.springframework.aop.SpringProxy;
+import org.springframework.aop.framework.Advised;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.DecoratingProxy;
+import org.springframework.data.repository.Repository;
+import org.springframework.nativex.hint.*;
+import org.springframework.transaction.interceptor.TransactionalProxy;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Reflection, proxy and resource hints for the native image, only compiled by the native profile.
+ */
+@NativeHint(
+    types = {
+        // Read and written by Jackson and the R2DBC entity mapper
+        @TypeHint(
+            types = {
+                Anime.class, DevDojoUser.class, AnimeSearchHit.class, AnimeSuggestion.class,
+                AnimeImportResult.class, AnimeImportResult.Failure.class,
+                AnimeChangeEvent.class, AnimeChangeEvent.Type.class},
+            access = {TypeAccess.DECLARED_CONSTRUCTORS, TypeAccess.DECLARED_FIELDS, TypeAccess.DECLARED_METHODS}),
+        // Repository fragment, instantiated by the repository factory
+        @TypeHint(types = AnimeBatchRepositoryImpl.class, access = TypeAccess.DECLARED_CONSTRUCTORS),
+        // Looked up reflectively by BlockingSchedulers
+        @TypeHint(types = Executors.class, methods = @MethodHint(name = "newVirtualThreadPerTaskExecutor"))
+    },
+    jdkProxies = {
+        @JdkProxyHint(types = {
+            AnimeRepository.class, Repository.class, TransactionalProxy.class, Advised.class, DecoratingProxy.class,
+            SpringProxy.class}),
+        @JdkProxyHint(types = {
+            UserRepository.class, Repository.class, TransactionalProxy.class, Advised.class, DecoratingProxy.class,
+            SpringProxy.class})
+    },
+    resources = @ResourceHint(patterns = "db/migration/.*\\.sql"))
+@Configuration(proxyBeanMethods = false)
+public class NativeHintsConfiguration {
+}
@@ -0,0 +1,71 @@
+package com.emendes.webflux.benchmark;
+
+import com.emendes.webflux.domain.Anime;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encode cost of the anime list per wire format. The payload size of each format is printed once per trial, and
+ * the benchmarks report the CPU time to produce it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnimeCodecBenchmark {
+
+  @Param({"10", "1000"})
+  public int size;
+
+  private ObjectMapper jsonMapper;
+  private ObjectMapper smileMapper;
+  private ObjectMapper cborMapper;
+  private List<Anime> animes;
+
+  @Setup
+  public void setUp() throws IOException {
+    jsonMapper = Jackson2ObjectMapperBuilder.json().build();
+    smileMapper = Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build();
+    cborMapper = Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build();
+    animes = BenchmarkFixtures.animes(size);
+
+    System.out.printf("%n%d animes: json=%d B, json+gzip=%d B, smile=%d B, cbor=%d B%n", size,
+        json().length, jsonGzip().length, smile().length, cbor().length);
+  }
+
+  @Benchmark
+  public byte[] json() throws IOException {
+    return jsonMapper.writeValueAsBytes(animes);
+  }
+
+  @Benchmark
+  public byte[] jsonGzip() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+      jsonMapper.writeValue(gzip, animes);
+    }
+    return bytes.toByteArray();
+  }
+
+  @Benchmark
+  public byte[] smile() throws IOException {
+    return smileMapper.writeValueAsBytes(animes);
+  }
+
+  @Benchmark
+  public byte[] cbor() throws IOException {
+    return cborMapper.writeValueAsBytes(animes);
+  }
+
+}
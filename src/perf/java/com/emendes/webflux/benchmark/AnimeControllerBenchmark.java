@@ -0,0 +1,91 @@
+package com.emendes.webflux.benchmark;
+
+import com.emendes.webflux.controller.AnimeController;
+import com.emendes.webflux.service.AnimeImportService;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dispatches requests through the WebFlux handler chain in process, without a socket and without security.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnimeControllerBenchmark {
+
+  @Param({"100"})
+  public int catalogSize;
+
+  private WebTestClient client;
+  private String catalogEtag;
+
+  @Setup
+  public void setUp() {
+    AnimeController animeController = new AnimeController(
+        BenchmarkFixtures.animeService(BenchmarkFixtures.stubbedAnimeRepository(BenchmarkFixtures.animes(catalogSize))),
+        Mockito.mock(AnimeImportService.class));
+
+    client = WebTestClient.bindToController(animeController).build();
+    catalogEtag = client.get().uri("/animes").exchange().returnResult(byte[].class).getResponseHeaders().getETag();
+  }
+
+  @Benchmark
+  public byte[] findById() {
+    return client.get().uri("/animes/{id}", 1)
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .returnResult()
+        .getResponseBody();
+  }
+
+  @Benchmark
+  public byte[] listAll() {
+    return client.get().uri("/animes")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .returnResult()
+        .getResponseBody();
+  }
+
+  @Benchmark
+  public byte[] listAllGzip() {
+    return client.get().uri("/animes")
+        .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .returnResult()
+        .getResponseBody();
+  }
+
+  @Benchmark
+  public byte[] listAllNotModified() {
+    return client.get().uri("/animes")
+        .header(HttpHeaders.IF_NONE_MATCH, catalogEtag)
+        .exchange()
+        .expectStatus().isNotModified()
+        .expectBody()
+        .returnResult()
+        .getResponseBody();
+  }
+
+  @Benchmark
+  public byte[] findByIdNotFound() {
+    return client.get().uri("/animes/{id}", catalogSize + 1)
+        .exchange()
+        .expectStatus().isNotFound()
+        .expectBody()
+        .returnResult()
+        .getResponseBody();
+  }
+
+}
@@ -0,0 +1,37 @@
+package com.emendes.webflux.benchmark;
+
+import com.emendes.webflux.domain.Anime;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnimeJsonBenchmark {
+
+  @Param({"10", "1000"})
+  public int size;
+
+  private ObjectMapper objectMapper;
+  private List<Anime> animes;
+
+  @Setup
+  public void setUp() {
+    objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    animes = BenchmarkFixtures.animes(size);
+  }
+
+  @Benchmark
+  public byte[] serializeAnimeList() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(animes);
+  }
+
+}
@@ -0,0 +1,48 @@
+package com.emendes.webflux.benchmark;
+
+import com.emendes.webflux.domain.Anime;
+import com.emendes.webflux.service.AnimeService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnimeServiceBenchmark {
+
+  @Param({"1000"})
+  public int catalogSize;
+
+  private AnimeService animeService;
+
+  @Setup
+  public void setUp() {
+    animeService = BenchmarkFixtures.animeService(BenchmarkFixtures.stubbedAnimeRepository(BenchmarkFixtures.animes(catalogSize)));
+  }
+
+  @Benchmark
+  public Anime findById() {
+    return animeService.findById(1).block();
+  }
+
+  @Benchmark
+  public List<Anime> findAll() {
+    return animeService.findAll().collectList().block();
+  }
+
+  @Benchmark
+  public List<Anime> findPage() {
+    return animeService.findPage(100, 20).collectList().block();
+  }
+
+  @Benchmark
+  public List<Anime> streamAll() {
+    return animeService.streamAll().collectList().block();
+  }
+
+}
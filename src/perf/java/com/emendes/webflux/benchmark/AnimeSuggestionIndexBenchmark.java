@@ -0,0 +1,46 @@
+package com.emendes.webflux.benchmark;
+
+import com.emendes.webflux.domain.Anime;
+import com.emendes.webflux.domain.AnimeSuggestion;
+import com.emendes.webflux.service.AnimeSuggestionIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnimeSuggestionIndexBenchmark {
+
+  @Param({"10000", "100000"})
+  public int catalogSize;
+
+  private AnimeSuggestionIndex animeSuggestionIndex;
+  private int nextId;
+
+  @Setup
+  public void setUp() {
+    List<Anime> animes = BenchmarkFixtures.animes(catalogSize);
+    animeSuggestionIndex = new AnimeSuggestionIndex(BenchmarkFixtures.stubbedAnimeRepository(animes), Duration.ofSeconds(30));
+    animeSuggestionIndex.load().block();
+    nextId = catalogSize + 1;
+    System.out.printf("%n%d names, about %d KiB%n", animeSuggestionIndex.size(), animeSuggestionIndex.estimatedBytes() / 1024);
+  }
+
+  @Benchmark
+  public List<AnimeSuggestion> suggest() {
+    return animeSuggestionIndex.suggest("tensei shitara slime datta ken 42", 10);
+  }
+
+  @Benchmark
+  public void put() {
+    animeSuggestionIndex.put(new Anime(nextId, "Tensei Shitara Slime Datta Ken " + nextId, 0));
+    animeSuggestionIndex.remove(nextId++);
+  }
+
+}
@@ -0,0 +1,63 @@
+package com.emendes.webflux.benchmark;
+
+import com.emendes.webflux.domain.Anime;
+import com.emendes.webflux.repository.AnimeRepository;
+import com.emendes.webflux.service.AnimeCache;
+import com.emendes.webflux.service.AnimeCatalogBodyCache;
+import com.emendes.webflux.service.AnimeChangeFeed;
+import com.emendes.webflux.service.AnimeReadCoalescer;
+import com.emendes.webflux.service.AnimeService;
+import com.emendes.webflux.service.AnimeSuggestionIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+
+final class BenchmarkFixtures {
+
+  private BenchmarkFixtures() {
+  }
+
+  static List<Anime> animes(int size) {
+    return IntStream.rangeClosed(1, size)
+        .mapToObj(id -> Anime.builder().id(id).name("Tensei Shitara Slime Datta Ken " + id).build())
+        .toList();
+  }
+
+  static AnimeRepository stubbedAnimeRepository(List<Anime> animes) {
+    AnimeRepository animeRepository = Mockito.mock(AnimeRepository.class);
+
+    BDDMockito.when(animeRepository.findAll()).thenReturn(Flux.fromIterable(animes));
+    BDDMockito.when(animeRepository.findCatalogVersion())
+        .thenReturn(Mono.just(animes.size() + "-0-" + animes.size()));
+    BDDMockito.when(animeRepository.findById(ArgumentMatchers.anyInt()))
+        .thenAnswer(invocation -> {
+          int id = invocation.getArgument(0);
+          return id <= animes.size() ? Mono.just(animes.get(id - 1)) : Mono.empty();
+        });
+    BDDMockito.when(animeRepository.findPageAfterId(ArgumentMatchers.anyInt(), ArgumentMatchers.anyInt()))
+        .thenAnswer(invocation -> {
+          int afterId = invocation.getArgument(0);
+          int limit = invocation.getArgument(1);
+          return Flux.fromIterable(animes.subList(Math.min(afterId, animes.size()), Math.min(afterId + limit, animes.size())));
+        });
+
+    return animeRepository;
+  }
+
+  static AnimeService animeService(AnimeRepository animeRepository) {
+    AnimeSuggestionIndex animeSuggestionIndex = new AnimeSuggestionIndex(animeRepository, Duration.ofSeconds(30));
+    animeSuggestionIndex.load().block();
+    AnimeCache animeCache = new AnimeCache(10_000, Duration.ofMinutes(5), Duration.ofSeconds(5), Duration.ofSeconds(5));
+    return new AnimeService(animeRepository, animeCache, animeSuggestionIndex,
+        new AnimeCatalogBodyCache(animeRepository, animeCache, new ObjectMapper()), new AnimeReadCoalescer(),
+        new AnimeChangeFeed(1024, 256));
+  }
+
+}
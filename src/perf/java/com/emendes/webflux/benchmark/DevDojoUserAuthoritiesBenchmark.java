@@ -0,0 +1,45 @@
+package com.emendes.webflux.benchmark;
+
+import com.emendes.webflux.domain.DevDojoUser;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DevDojoUserAuthoritiesBenchmark {
+
+  private DevDojoUser loadedUser;
+
+  @Setup
+  public void setUp() {
+    loadedUser = user();
+  }
+
+  @Benchmark
+  public Collection<? extends GrantedAuthority> getAuthoritiesOfLoadedUser() {
+    return loadedUser.getAuthorities();
+  }
+
+  @Benchmark
+  public Collection<? extends GrantedAuthority> getAuthoritiesOfFreshUser() {
+    return user().getAuthorities();
+  }
+
+  private static DevDojoUser user() {
+    return DevDojoUser.builder()
+        .id(1)
+        .name("William Suane")
+        .username("admin@email.com")
+        .password("{bcrypt}$2a$10$placeholder")
+        .authorities("ROLE_ADMIN,ROLE_USER")
+        .build();
+  }
+
+}
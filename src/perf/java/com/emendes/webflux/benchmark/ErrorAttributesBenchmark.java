@@ -0,0 +1,40 @@
+package com.emendes.webflux.benchmark;
+
+import com.emendes.webflux.handler.CustomAttributes;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.web.error.ErrorAttributeOptions;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ErrorAttributesBenchmark {
+
+  private CustomAttributes customAttributes;
+  private ServerRequest request;
+
+  @Setup
+  public void setUp() {
+    customAttributes = new CustomAttributes();
+    MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/animes/100"));
+    customAttributes.storeErrorInformation(new ResponseStatusException(HttpStatus.NOT_FOUND, "Anime not found"), exchange);
+    request = ServerRequest.create(exchange, HandlerStrategies.withDefaults().messageReaders());
+  }
+
+  @Benchmark
+  public Map<String, Object> getErrorAttributes() {
+    return customAttributes.getErrorAttributes(request, ErrorAttributeOptions.defaults());
+  }
+
+}
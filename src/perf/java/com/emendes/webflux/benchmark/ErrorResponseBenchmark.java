@@ -0,0 +1,55 @@
+package com.emendes.webflux.benchmark;
+
+import com.emendes.webflux.handler.CustomAttributes;
+import com.emendes.webflux.handler.GlobalExceptionHandler;
+import com.emendes.webflux.service.AnimeNotFoundException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.autoconfigure.web.WebProperties;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * A 404 for a missing anime, from creating the exception to the written body: "generic" is a plain
+ * {@link ResponseStatusException} going through the error attribute map and the JSON encoder, "expected" is the
+ * stackless {@link AnimeNotFoundException} with its templated body.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ErrorResponseBenchmark {
+
+  @Param({"generic", "expected"})
+  public String error;
+
+  private GlobalExceptionHandler globalExceptionHandler;
+  private Supplier<Throwable> notFound;
+
+  @Setup
+  public void setUp() throws Exception {
+    globalExceptionHandler = new GlobalExceptionHandler(
+        new CustomAttributes(), new WebProperties.Resources(), new StaticApplicationContext(),
+        ServerCodecConfigurer.create());
+    globalExceptionHandler.afterPropertiesSet();
+    notFound = "expected".equals(error)
+        ? AnimeNotFoundException::new
+        : () -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Anime not found");
+  }
+
+  @Benchmark
+  public String notFound() {
+    MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/animes/100"));
+    globalExceptionHandler.handle(exchange, notFound.get()).block();
+    return exchange.getResponse().getBodyAsString().block();
+  }
+
+}
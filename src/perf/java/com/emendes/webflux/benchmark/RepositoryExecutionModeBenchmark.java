@@ -0,0 +1,104 @@
+package com.emendes.webflux.benchmark;
+
+import com.emendes.webflux.domain.Anime;
+import com.emendes.webflux.repository.AnimeBatchRepositoryImpl;
+import com.emendes.webflux.repository.AnimeRepository;
+import com.emendes.webflux.repository.jdbc.BlockingSchedulers;
+import com.emendes.webflux.repository.jdbc.JdbcAnimeRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.repository.support.R2dbcRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point reads through the R2DBC repository and through the JDBC one on {@link BlockingSchedulers}, against the same
+ * in-memory H2 database and the same pool size. Run with -Pperf,java21 on Java 21 to measure virtual threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RepositoryExecutionModeBenchmark {
+
+  private static final int CATALOG_SIZE = 10_000;
+  private static final int POOL_SIZE = 20;
+
+  @Param({"r2dbc", "jdbc"})
+  public String mode;
+
+  @Param({"64", "1024"})
+  public int concurrency;
+
+  private HikariDataSource dataSource;
+  private ConnectionPool connectionPool;
+  private Scheduler jdbcScheduler;
+  private AnimeRepository animeRepository;
+
+  @Setup
+  public void setUp() {
+    dataSource = new HikariDataSource();
+    dataSource.setJdbcUrl("jdbc:h2:mem:webflux-bench;DB_CLOSE_DELAY=-1");
+    dataSource.setMaximumPoolSize(POOL_SIZE);
+    NamedParameterJdbcTemplate jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+    jdbcTemplate.getJdbcTemplate().execute("DROP TABLE IF EXISTS t_anime");
+    jdbcTemplate.getJdbcTemplate().execute("""
+        CREATE TABLE t_anime (
+            id INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+            name VARCHAR(255) NOT NULL,
+            version INTEGER NOT NULL DEFAULT 0
+        )""");
+    jdbcScheduler = BlockingSchedulers.create("jdbc", POOL_SIZE);
+    JdbcAnimeRepository jdbcAnimeRepository = new JdbcAnimeRepository(
+        jdbcTemplate, new TransactionTemplate(new DataSourceTransactionManager(dataSource)), jdbcScheduler);
+    jdbcAnimeRepository.insertAll(BenchmarkFixtures.animes(CATALOG_SIZE)).blockLast();
+
+    if ("jdbc".equals(mode)) {
+      animeRepository = jdbcAnimeRepository;
+      return;
+    }
+    connectionPool = new ConnectionPool(ConnectionPoolConfiguration
+        .builder(ConnectionFactories.get("r2dbc:h2:mem:///webflux-bench;DB_CLOSE_DELAY=-1"))
+        .initialSize(POOL_SIZE)
+        .maxSize(POOL_SIZE)
+        .build());
+    animeRepository = new R2dbcRepositoryFactory(new R2dbcEntityTemplate(connectionPool)).getRepository(
+        AnimeRepository.class,
+        RepositoryFragments.just(new AnimeBatchRepositoryImpl(DatabaseClient.create(connectionPool),
+            TransactionalOperator.create(new R2dbcTransactionManager(connectionPool)), 500)));
+  }
+
+  @TearDown
+  public void tearDown() {
+    if (connectionPool != null) {
+      connectionPool.dispose();
+    }
+    jdbcScheduler.dispose();
+    dataSource.close();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(1024)
+  public Anime findById() {
+    return Flux.range(0, 1024)
+        .flatMap(i -> animeRepository.findById(ThreadLocalRandom.current().nextInt(1, CATALOG_SIZE + 1)), concurrency)
+        .blockLast();
+  }
+
+}
@@ -0,0 +1,186 @@
+package com.emendes.webflux.loadtest;
+
+import com.emendes.webflux.SpringWebfluxCourseApplication;
+import com.emendes.webflux.domain.Anime;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Starts the application against an in-memory H2 database and drives a weighted mix of requests against it,
+ * reporting throughput and p50/p99/p999 latencies per operation.
+ * <p>
+ * With rate=0 the load is closed-loop (as fast as the concurrency allows). With rate>0 requests are issued
+ * on a fixed schedule and latency is measured from the intended start time, so a stalled server is not
+ * hidden by coordinated omission.
+ */
+public final class AnimeLoadTest {
+
+  private static final ParameterizedTypeReference<List<Anime>> ANIME_LIST = new ParameterizedTypeReference<>() {
+  };
+
+  private final LoadTestOptions options;
+  private final WebClient client;
+  private final Operation[] weightedOperations;
+  private final Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+  private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+  private final ConcurrentLinkedQueue<Integer> createdIds = new ConcurrentLinkedQueue<>();
+  private final AtomicLong dropped = new AtomicLong();
+
+  private AnimeLoadTest(LoadTestOptions options, int port) {
+    this.options = options;
+    this.client = WebClient.builder()
+        .baseUrl("http://localhost:" + port)
+        .clientConnector(new ReactorClientHttpConnector(HttpClient.create(
+            ConnectionProvider.builder("load-test").maxConnections(options.concurrency()).build())))
+        .defaultHeaders(headers -> headers.setBasicAuth(LoadTestConfiguration.ADMIN_USER, LoadTestConfiguration.PASSWORD))
+        .build();
+    this.weightedOperations = options.mix().entrySet().stream()
+        .flatMap(entry -> Stream.generate(entry::getKey).limit(entry.getValue()))
+        .toArray(Operation[]::new);
+    for (Operation operation : Operation.values()) {
+      histograms.put(operation, new ConcurrentHistogram(3));
+      errors.put(operation, new LongAdder());
+    }
+  }
+
+  public static void main(String[] args) {
+    LoadTestOptions options = LoadTestOptions.parse(args);
+
+    ConfigurableApplicationContext context = new SpringApplicationBuilder(
+        SpringWebfluxCourseApplication.class, LoadTestConfiguration.class)
+        .profiles("loadtest")
+        .run("--server.port=0", "--loadtest.catalog-size=" + options.catalogSize());
+
+    try {
+      int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+      AnimeLoadTest loadTest = new AnimeLoadTest(options, port);
+
+      System.out.printf("warming up for %s%n", options.warmup());
+      loadTest.run(options.warmup());
+      loadTest.reset();
+
+      System.out.printf("measuring for %s (concurrency=%d, rate=%s)%n",
+          options.duration(), options.concurrency(), options.rate() > 0 ? options.rate() + "/s" : "unbounded");
+      long started = System.nanoTime();
+      loadTest.run(options.duration());
+      loadTest.report(System.nanoTime() - started);
+    } finally {
+      context.close();
+    }
+  }
+
+  private void run(Duration duration) {
+    long startNanos = System.nanoTime();
+    Flux<Long> intendedStarts;
+    if (options.rate() > 0) {
+      long periodNanos = TimeUnit.SECONDS.toNanos(1) / options.rate();
+      intendedStarts = Flux.interval(Duration.ofNanos(periodNanos))
+          .map(tick -> startNanos + tick * periodNanos)
+          .onBackpressureDrop(tick -> dropped.incrementAndGet());
+    } else {
+      intendedStarts = Flux.generate(sink -> sink.next(System.nanoTime()));
+    }
+
+    intendedStarts
+        .take(duration)
+        .flatMap(intendedStart -> execute(nextOperation(), intendedStart), options.concurrency())
+        .blockLast();
+  }
+
+  private Operation nextOperation() {
+    return weightedOperations[ThreadLocalRandom.current().nextInt(weightedOperations.length)];
+  }
+
+  private Mono<Void> execute(Operation operation, long intendedStart) {
+    return request(operation)
+        .doOnSuccess(v -> histograms.get(operation).recordValue(System.nanoTime() - intendedStart))
+        .onErrorResume(exception -> {
+          errors.get(operation).increment();
+          return Mono.empty();
+        });
+  }
+
+  private Mono<Void> request(Operation operation) {
+    int id = ThreadLocalRandom.current().nextInt(1, options.catalogSize() + 1);
+    return switch (operation) {
+      case LIST -> client.get().uri("/animes").retrieve().bodyToMono(ANIME_LIST).then();
+      case FIND -> client.get().uri("/animes/{id}", id).retrieve().bodyToMono(Anime.class).then();
+      case BATCH -> client.post().uri("/animes/batch")
+          .bodyValue(List.of(newAnime(), newAnime(), newAnime(), newAnime(), newAnime()))
+          .retrieve()
+          .bodyToFlux(Anime.class)
+          .doOnNext(anime -> createdIds.add(anime.getId()))
+          .then();
+      case UPDATE -> client.put().uri("/animes/{id}", id)
+          .bodyValue(Anime.builder().name("Updated Load Test Anime " + id).build())
+          .retrieve()
+          .toBodilessEntity()
+          .then();
+      case DELETE -> {
+        Integer createdId = createdIds.poll();
+        // Only delete what the load test created, so FIND and UPDATE keep hitting existing rows.
+        yield createdId == null
+            ? Mono.empty()
+            : client.delete().uri("/animes/{id}", createdId).retrieve().toBodilessEntity().then();
+      }
+    };
+  }
+
+  private static Anime newAnime() {
+    return Anime.builder().name("Load Test Anime " + ThreadLocalRandom.current().nextInt()).build();
+  }
+
+  private void reset() {
+    histograms.values().forEach(Histogram::reset);
+    errors.values().forEach(LongAdder::reset);
+    dropped.set(0);
+  }
+
+  private void report(long elapsedNanos) {
+    double elapsedSeconds = elapsedNanos / 1e9;
+    System.out.printf("%n%-8s %10s %8s %10s %10s %10s %10s %10s%n",
+        "op", "count", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+
+    long total = 0;
+    for (Operation operation : Operation.values()) {
+      Histogram histogram = histograms.get(operation);
+      long count = histogram.getTotalCount();
+      total += count;
+      System.out.printf("%-8s %10d %8d %10.1f %10.2f %10.2f %10.2f %10.2f%n",
+          operation, count, errors.get(operation).sum(), count / elapsedSeconds,
+          millis(histogram.getValueAtPercentile(50)),
+          millis(histogram.getValueAtPercentile(99)),
+          millis(histogram.getValueAtPercentile(99.9)),
+          millis(histogram.getMaxValue()));
+    }
+
+    System.out.printf("%ntotal: %d requests, %.1f req/s, %d ticks dropped by the client%n",
+        total, total / elapsedSeconds, dropped.get());
+  }
+
+  private static double millis(long nanos) {
+    return nanos / 1e6;
+  }
+
+}
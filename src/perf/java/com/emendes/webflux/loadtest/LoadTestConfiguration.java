@@ -0,0 +1,52 @@
+package com.emendes.webflux.loadtest;
+
+import com.emendes.webflux.domain.Anime;
+import com.emendes.webflux.domain.DevDojoUser;
+import com.emendes.webflux.repository.AnimeRepository;
+import com.emendes.webflux.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Seeds the stand-in database. Deliberately not annotated with @Configuration so component scanning never
+ * picks it up: it is only registered by {@link AnimeLoadTest}.
+ */
+@Profile("loadtest")
+public class LoadTestConfiguration {
+
+  static final String ADMIN_USER = "admin@email.com";
+  static final String PASSWORD = "devdojo";
+
+  @Bean
+  public ApplicationRunner loadTestDataSeeder(
+      UserRepository userRepository,
+      AnimeRepository animeRepository,
+      PasswordEncoder passwordEncoder,
+      @Value("${loadtest.catalog-size:1000}") int catalogSize) {
+    return args -> {
+      DevDojoUser admin = DevDojoUser.builder()
+          .name("Load Test Admin")
+          .username(ADMIN_USER)
+          .password(passwordEncoder.encode(PASSWORD))
+          .authorities("ROLE_ADMIN,ROLE_USER")
+          .build();
+
+      List<Anime> catalog = IntStream.rangeClosed(1, catalogSize)
+          .mapToObj(i -> Anime.builder().name("Load Test Anime " + i).build())
+          .toList();
+
+      userRepository.save(admin)
+          .thenMany(Flux.defer(() -> animeRepository.insertAll(catalog)))
+          .then()
+          .block();
+    };
+  }
+
+}
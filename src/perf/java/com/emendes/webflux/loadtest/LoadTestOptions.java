@@ -0,0 +1,50 @@
+package com.emendes.webflux.loadtest;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Options given as key=value arguments, e.g. {@code concurrency=64 rate=2000 duration=60s mix=find:70,list:10}.
+ */
+record LoadTestOptions(
+    int concurrency,
+    int rate,
+    Duration warmup,
+    Duration duration,
+    int catalogSize,
+    Map<Operation, Integer> mix) {
+
+  static LoadTestOptions parse(String[] args) {
+    Map<String, String> values = new HashMap<>();
+    for (String arg : args) {
+      int separator = arg.indexOf('=');
+      if (separator > 0) {
+        values.put(arg.substring(0, separator), arg.substring(separator + 1));
+      }
+    }
+
+    return new LoadTestOptions(
+        Integer.parseInt(values.getOrDefault("concurrency", "64")),
+        Integer.parseInt(values.getOrDefault("rate", "0")),
+        parseDuration(values.getOrDefault("warmup", "10s")),
+        parseDuration(values.getOrDefault("duration", "30s")),
+        Integer.parseInt(values.getOrDefault("catalog-size", "1000")),
+        parseMix(values.getOrDefault("mix", "find:70,list:10,batch:5,update:10,delete:5")));
+  }
+
+  private static Duration parseDuration(String value) {
+    return Duration.parse("PT" + value.toUpperCase());
+  }
+
+  private static Map<Operation, Integer> parseMix(String value) {
+    Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+    for (String entry : value.split(",")) {
+      String[] weight = entry.split(":");
+      mix.put(Operation.valueOf(weight[0].trim().toUpperCase()), Integer.parseInt(weight[1].trim()));
+    }
+    return mix;
+  }
+
+}
@@ -0,0 +1,11 @@
+package com.emendes.webflux.loadtest;
+
+enum Operation {
+
+  LIST,
+  FIND,
+  BATCH,
+  UPDATE,
+  DELETE
+
+}
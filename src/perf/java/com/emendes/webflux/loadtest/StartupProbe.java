@@ -0,0 +1,85 @@
+package com.emendes.webflux.loadtest;
+
+import com.emendes.webflux.SpringWebfluxCourseApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Measures how long a fresh JVM takes to serve traffic: JVM uptime until the application is ready, then the
+ * latency of the first list and the first point read. Each run appends one JSON line to {@code output}, so runs
+ * with and without a CDS archive can be compared, and fails when startup exceeds {@code max-startup-ms}.
+ * <p>
+ * The startup warm-up runs before the application is ready, so it is off by default to keep startup comparable
+ * across runs; {@code warmup=true} measures startup including it.
+ * <p>
+ * Arguments: {@code label=baseline output=target/startup-results.jsonl max-startup-ms=0 warmup=false}
+ */
+public final class StartupProbe {
+
+  private StartupProbe() {
+  }
+
+  public static void main(String[] args) throws IOException {
+    Map<String, String> options = new HashMap<>();
+    for (String arg : args) {
+      int separator = arg.indexOf('=');
+      if (separator > 0) {
+        options.put(arg.substring(0, separator), arg.substring(separator + 1));
+      }
+    }
+    String label = options.getOrDefault("label", "baseline");
+    long maxStartupMillis = Long.parseLong(options.getOrDefault("max-startup-ms", "0"));
+    boolean warmup = Boolean.parseBoolean(options.getOrDefault("warmup", "false"));
+
+    ConfigurableApplicationContext context = new SpringApplicationBuilder(
+        SpringWebfluxCourseApplication.class, LoadTestConfiguration.class)
+        .profiles("loadtest")
+        .run("--server.port=0", "--loadtest.catalog-size=100", "--webflux.warmup.enabled=" + warmup);
+    long startupMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+
+    long firstListMillis;
+    long firstFindMillis;
+    try {
+      WebClient client = WebClient.builder()
+          .baseUrl("http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort())
+          .defaultHeaders(headers -> headers.setBasicAuth(LoadTestConfiguration.ADMIN_USER, LoadTestConfiguration.PASSWORD))
+          .build();
+      firstListMillis = timeMillis(() -> client.get().uri("/animes").retrieve().toBodilessEntity().block());
+      firstFindMillis = timeMillis(() -> client.get().uri("/animes/{id}", 1).retrieve().toBodilessEntity().block());
+    } finally {
+      context.close();
+    }
+
+    String result = "{\"label\":\"%s\",\"warmup\":%b,\"startupMs\":%d,\"firstListMs\":%d,\"firstFindMs\":%d}"
+        .formatted(label, warmup, startupMillis, firstListMillis, firstFindMillis);
+    System.out.println(result);
+    Path output = Path.of(options.getOrDefault("output", "target/startup-results.jsonl"));
+    Files.writeString(output, result + System.lineSeparator(), StandardCharsets.UTF_8,
+        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+
+    if (maxStartupMillis > 0 && startupMillis > maxStartupMillis) {
+      System.err.printf("%s startup took %d ms, more than the allowed %d ms%n", label, startupMillis, maxStartupMillis);
+      System.exit(1);
+    }
+    // Exits explicitly so a dynamic CDS archive is written as soon as the probe is done
+    System.exit(0);
+  }
+
+  private static long timeMillis(Runnable request) {
+    long started = System.nanoTime();
+    request.run();
+    return (System.nanoTime() - started) / 1_000_000;
+  }
+
+}
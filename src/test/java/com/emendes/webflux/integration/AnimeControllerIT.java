@@ -1,5 +1,6 @@
 package com.emendes.webflux.integration;
 
+import com.emendes.webflux.config.CodecConfig;
 import com.emendes.webflux.domain.Anime;
 import com.emendes.webflux.repository.AnimeRepository;
 import com.emendes.webflux.util.creator.AnimeCreator;
@@ -12,6 +13,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithUserDetails;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
@@ -23,10 +26,9 @@ import reactor.core.publisher.Mono;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyInt;
 
 @ExtendWith(SpringExtension.class)
-@SpringBootTest
+@SpringBootTest(properties = "webflux.schema.migrate=false")
 @AutoConfigureWebTestClient
 class AnimeControllerIT {
 
@@ -45,6 +47,8 @@ class AnimeControllerIT {
   public void setUp() {
     BDDMockito.when(animeRepositoryMock.findAll()).thenReturn(Flux.just(anime));
 
+    BDDMockito.when(animeRepositoryMock.findCatalogVersion()).thenReturn(Mono.just("1-0-1"));
+
     BDDMockito.when(animeRepositoryMock.findById(1)).thenReturn(Mono.just(anime));
 
     BDDMockito.when(animeRepositoryMock.findById(100)).thenReturn(Mono.empty());
@@ -52,10 +56,22 @@ class AnimeControllerIT {
     BDDMockito.when(animeRepositoryMock.save(any(Anime.class)))
         .thenReturn(Mono.just(anime));
 
-    BDDMockito.when(animeRepositoryMock.deleteById(anyInt()))
+    BDDMockito.when(animeRepositoryMock.deleteAnimeById(1))
+        .thenReturn(Mono.just(1));
+
+    BDDMockito.when(animeRepositoryMock.deleteAnimeById(100))
+        .thenReturn(Mono.just(0));
+
+    BDDMockito.when(animeRepositoryMock.updateName(1, "Tensei Shitara Slime Datta Ken 2"))
+        .thenReturn(Mono.just(AnimeCreator.createValidUpdatedAnime().withVersion(1)));
+
+    BDDMockito.when(animeRepositoryMock.updateName(100, "Tensei Shitara Slime Datta Ken 2"))
+        .thenReturn(Mono.empty());
+
+    BDDMockito.when(animeRepositoryMock.updateNameIfVersion(1, "Tensei Shitara Slime Datta Ken 2", 0))
         .thenReturn(Mono.empty());
 
-    BDDMockito.when(animeRepositoryMock.saveAll(List.of(AnimeCreator.createAnimeToBeSaved(), AnimeCreator.createAnimeToBeSaved())))
+    BDDMockito.when(animeRepositoryMock.insertAll(List.of(AnimeCreator.createAnimeToBeSaved(), AnimeCreator.createAnimeToBeSaved())))
         .thenReturn(Flux.just(anime, anime));
   }
 
@@ -87,6 +103,65 @@ class AnimeControllerIT {
         .jsonPath("$.[0].name").isEqualTo(anime.getName());
   }
 
+  @Test
+  @DisplayName("listAll returns the gzip encoded catalog when the client accepts gzip")
+  @WithUserDetails(REGULAR_USER)
+  void listAll_ReturnsGzipBody_WhenClientAcceptsGzip() {
+    client
+        .get()
+        .uri("/animes")
+        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate")
+        .exchange()
+        .expectStatus().isOk()
+        .expectHeader().valueEquals(HttpHeaders.CONTENT_ENCODING, "gzip")
+        .expectHeader().valueEquals(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+  }
+
+  @Test
+  @DisplayName("listAll returns the animes as Smile when the client accepts Smile")
+  @WithUserDetails(REGULAR_USER)
+  void listAll_ReturnsSmile_WhenClientAcceptsSmile() {
+    client
+        .get()
+        .uri("/animes")
+        .accept(CodecConfig.APPLICATION_SMILE)
+        .exchange()
+        .expectStatus().isOk()
+        .expectHeader().contentType(CodecConfig.APPLICATION_SMILE)
+        .expectBody(new ParameterizedTypeReference<List<Anime>>() {
+        })
+        .isEqualTo(List.of(anime));
+  }
+
+  @Test
+  @DisplayName("listAll returns the animes as CBOR when the client accepts CBOR")
+  @WithUserDetails(REGULAR_USER)
+  void listAll_ReturnsCbor_WhenClientAcceptsCbor() {
+    client
+        .get()
+        .uri("/animes")
+        .accept(MediaType.APPLICATION_CBOR)
+        .exchange()
+        .expectStatus().isOk()
+        .expectHeader().contentType(MediaType.APPLICATION_CBOR)
+        .expectBody(new ParameterizedTypeReference<List<Anime>>() {
+        })
+        .isEqualTo(List.of(anime));
+  }
+
+  @Test
+  @DisplayName("findById returns the error body as CBOR when the client accepts CBOR")
+  @WithUserDetails(REGULAR_USER)
+  void findById_ReturnsCborError_WhenClientAcceptsCbor() {
+    client
+        .get()
+        .uri("/animes/{id}", 100)
+        .accept(MediaType.APPLICATION_CBOR)
+        .exchange()
+        .expectStatus().isNotFound()
+        .expectHeader().contentType(MediaType.APPLICATION_CBOR);
+  }
+
   @Test
   @DisplayName("listAll returns unauthorized when user is  not authenticate")
   void listAll_ReturnsUnauthorized_WhenUserIsNotAuthenticate() {
@@ -136,6 +211,28 @@ class AnimeControllerIT {
         .isEqualTo(anime);
   }
 
+  @Test
+  @DisplayName("findById returns not modified when If-None-Match holds the current ETag and user have role USER")
+  @WithUserDetails(REGULAR_USER)
+  void findById_ReturnsNotModified_WhenETagMatches() {
+    String etag = client
+        .get()
+        .uri("/animes/{id}", 1)
+        .exchange()
+        .expectStatus().isOk()
+        .returnResult(Anime.class)
+        .getResponseHeaders().getETag();
+
+    client
+        .get()
+        .uri("/animes/{id}", 1)
+        .header(HttpHeaders.IF_NONE_MATCH, etag)
+        .exchange()
+        .expectStatus().isNotModified()
+        .expectHeader().valueEquals(HttpHeaders.ETAG, etag)
+        .expectBody().isEmpty();
+  }
+
   @Test
   @DisplayName("findById returns unauthorized when user is not authenticate")
   void findById_ReturnsUnauthorized_WhenUserIsNotAuthenticate() {
@@ -159,6 +256,25 @@ class AnimeControllerIT {
         .jsonPath("$.status").isEqualTo(404);
   }
 
+  @Test
+  @DisplayName("findById returns the same error fields as the generic handler when anime does not exist")
+  @WithUserDetails(REGULAR_USER)
+  void findById_ReturnsTemplatedErrorBody_WhenAnimeDoesNotExist() {
+    client
+        .get()
+        .uri("/animes/{id}", 100)
+        .exchange()
+        .expectStatus().isNotFound()
+        .expectHeader().contentType(MediaType.APPLICATION_JSON)
+        .expectBody()
+        .jsonPath("$.timestamp").isNotEmpty()
+        .jsonPath("$.path").isEqualTo("/animes/100")
+        .jsonPath("$.error").isEqualTo("Not Found")
+        .jsonPath("$.requestId").isNotEmpty()
+        .jsonPath("$.message").isEqualTo("404 NOT_FOUND \"Anime not found\"")
+        .jsonPath("$.developerMessage").isEqualTo("A ResponseStatusException happened");
+  }
+
   @Test
   @DisplayName("save create Anime when create successful and user have role ADMIN")
   @WithUserDetails(ADMIN_USER)
@@ -243,9 +359,6 @@ class AnimeControllerIT {
   @DisplayName("saveBatch returns Error when one anime on the list contains invalid fields and user is authenticate and have role ADMIN")
   @WithUserDetails(ADMIN_USER)
   void saveBatch_ReturnsError_WhenOneAnimeOnTheListContainsInvalidFields() {
-    BDDMockito.when(animeRepositoryMock.saveAll(List.of(AnimeCreator.createAnimeToBeSaved(), AnimeCreator.createAnimeToBeSaved().withName(""))))
-        .thenReturn(Flux.just(anime, anime.withName("")));
-
     Anime animeToBeSaved = AnimeCreator.createAnimeToBeSaved();
 
     client
@@ -270,6 +383,19 @@ class AnimeControllerIT {
         .expectStatus().isNoContent();
   }
 
+  @Test
+  @DisplayName("delete returns Error when Anime does not exist and user is authenticate and have role ADMIN")
+  @WithUserDetails(ADMIN_USER)
+  void delete_ReturnsError_WhenAnimeDoesNotExist() {
+    client
+        .delete()
+        .uri("/animes/{id}", 100)
+        .exchange()
+        .expectStatus().isNotFound()
+        .expectBody()
+        .jsonPath("$.status").isEqualTo(404);
+  }
+
   @Test
   @DisplayName("delete returns forbidden when user have role USER")
   @WithUserDetails(REGULAR_USER)
@@ -296,6 +422,24 @@ class AnimeControllerIT {
         .expectStatus().isNoContent();
   }
 
+  @Test
+  @DisplayName("update returns precondition failed when If-Match holds a stale version and user have role ADMIN")
+  @WithUserDetails(ADMIN_USER)
+  void update_ReturnsPreconditionFailed_WhenIfMatchIsStale() {
+    Anime animeToBeUpdated = AnimeCreator.createValidUpdatedAnime();
+
+    client
+        .put()
+        .uri("/animes/{id}", 1)
+        .header(HttpHeaders.IF_MATCH, "\"0\"")
+        .contentType(MediaType.APPLICATION_JSON)
+        .body(BodyInserters.fromValue(animeToBeUpdated))
+        .exchange()
+        .expectStatus().isEqualTo(412)
+        .expectBody()
+        .jsonPath("$.status").isEqualTo(412);
+  }
+
   @Test
   @DisplayName("update returns Error when Anime does not exist and user is authenticate and have role ADMIN")
   @WithUserDetails(ADMIN_USER)
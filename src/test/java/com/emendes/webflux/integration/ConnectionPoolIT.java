@@ -0,0 +1,79 @@
+package com.emendes.webflux.integration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(properties = {
+    "webflux.schema.migrate=false",
+    "spring.r2dbc.url=r2dbc:h2:mem:///pool-it;DB_CLOSE_DELAY=-1",
+    "spring.r2dbc.username=sa",
+    "spring.r2dbc.password=",
+    "spring.r2dbc.pool.initial-size=2",
+    "spring.r2dbc.pool.max-size=2",
+    "spring.r2dbc.pool.max-acquire-time=200ms"
+})
+@AutoConfigureWebTestClient
+class ConnectionPoolIT {
+
+  @Autowired
+  private WebTestClient client;
+
+  @Autowired
+  private ConnectionFactory connectionFactory;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Test
+  @DisplayName("the pool opens its initial connections at startup and publishes pool gauges")
+  void connectionPool_IsWarmedUpAndMetered_WhenApplicationStarts() {
+    ConnectionPool connectionPool = Assertions.assertInstanceOf(ConnectionPool.class, connectionFactory);
+
+    Assertions.assertEquals(2, connectionPool.getMetrics().orElseThrow().allocatedSize());
+    Assertions.assertEquals(2.0, meterRegistry.get("r2dbc.pool.idle").gauge().value());
+    Assertions.assertEquals(0.0, meterRegistry.get("r2dbc.pool.pending").gauge().value());
+  }
+
+  @Test
+  @DisplayName("findById returns 503 with Retry-After when no connection can be acquired in time")
+  @WithMockUser(roles = "USER")
+  void findById_ReturnsServiceUnavailable_WhenPoolIsExhausted() {
+    List<Connection> connections = Flux.range(0, 2)
+        .flatMap(i -> Mono.<Connection>from(connectionFactory.create()))
+        .collectList()
+        .block();
+
+    try {
+      client
+          .get()
+          .uri("/animes/{id}", 1)
+          .exchange()
+          .expectStatus().isEqualTo(503)
+          .expectHeader().valueEquals(HttpHeaders.RETRY_AFTER, "1")
+          .expectBody()
+          .jsonPath("$.status").isEqualTo(503)
+          .jsonPath("$.developerMessage").isEqualTo("No database connection could be acquired in time");
+    } finally {
+      Flux.fromIterable(connections).flatMap(Connection::close).blockLast();
+    }
+  }
+
+}
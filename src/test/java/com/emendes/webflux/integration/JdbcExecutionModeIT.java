@@ -0,0 +1,93 @@
+package com.emendes.webflux.integration;
+
+import com.emendes.webflux.domain.Anime;
+import com.emendes.webflux.repository.AnimeRepository;
+import com.emendes.webflux.repository.jdbc.JdbcAnimeRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.BodyInserters;
+
+import java.util.List;
+import java.util.Map;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(properties = {
+    "webflux.schema.migrate=false",
+    "webflux.execution.mode=jdbc",
+    "spring.data.r2dbc.repositories.enabled=false",
+    "spring.datasource.url=jdbc:h2:mem:jdbc-it;DB_CLOSE_DELAY=-1",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.r2dbc.url=r2dbc:h2:mem:///jdbc-it-r2dbc;DB_CLOSE_DELAY=-1",
+    "spring.r2dbc.username=sa",
+    "spring.r2dbc.password="
+})
+@AutoConfigureWebTestClient
+class JdbcExecutionModeIT {
+
+  @Autowired
+  private WebTestClient client;
+
+  @Autowired
+  private AnimeRepository animeRepository;
+
+  @Autowired
+  private NamedParameterJdbcTemplate jdbcTemplate;
+
+  @BeforeEach
+  public void setUp() {
+    jdbcTemplate.update("""
+        CREATE TABLE IF NOT EXISTS t_anime (
+            id INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+            name VARCHAR(255) NOT NULL,
+            version INTEGER NOT NULL DEFAULT 0
+        )""", Map.of());
+    jdbcTemplate.update("DELETE FROM t_anime", Map.of());
+  }
+
+  @Test
+  @DisplayName("the jdbc execution mode replaces the R2DBC anime repository")
+  void animeRepository_IsJdbc_WhenExecutionModeIsJdbc() {
+    Assertions.assertInstanceOf(JdbcAnimeRepository.class, animeRepository);
+  }
+
+  @Test
+  @DisplayName("saveBatch inserts through JDBC and findById reads the rows back")
+  @WithMockUser(roles = {"ADMIN", "USER"})
+  void saveBatch_InsertsThroughJdbc_WhenExecutionModeIsJdbc() {
+    List<Anime> saved = client
+        .post()
+        .uri("/animes/batch")
+        .contentType(MediaType.APPLICATION_JSON)
+        .body(BodyInserters.fromValue(List.of(new Anime(null, "Naruto", null), new Anime(null, "Bleach", null))))
+        .exchange()
+        .expectStatus().isCreated()
+        .expectBodyList(Anime.class)
+        .hasSize(2)
+        .returnResult()
+        .getResponseBody();
+
+    Assertions.assertNotNull(saved);
+    Assertions.assertEquals(List.of("Naruto", "Bleach"), saved.stream().map(Anime::getName).toList());
+
+    client
+        .get()
+        .uri("/animes/{id}", saved.get(1).getId())
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody(Anime.class)
+        .isEqualTo(saved.get(1));
+  }
+
+}
@@ -0,0 +1,74 @@
+package com.emendes.webflux.integration;
+
+import com.emendes.webflux.repository.AnimeRepository;
+import com.emendes.webflux.util.creator.AnimeCreator;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.BDDMockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(properties = {
+    "webflux.schema.migrate=false",
+    "webflux.rate-limit.rules=GET /animes/{id}=2/1m"
+})
+@AutoConfigureWebTestClient
+class RateLimitIT {
+
+  @Autowired
+  private WebTestClient client;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @MockBean
+  private AnimeRepository animeRepositoryMock;
+
+  @BeforeEach
+  public void setUp() {
+    BDDMockito.when(animeRepositoryMock.findById(1)).thenReturn(Mono.just(AnimeCreator.createValidAnime()));
+  }
+
+  @Test
+  @DisplayName("findById returns 429 with Retry-After once the client has used up its bucket")
+  @WithMockUser(username = "flooding-user", roles = "USER")
+  void findById_ReturnsTooManyRequests_WhenClientExceedsRateLimit() {
+    for (int i = 0; i < 2; i++) {
+      client.get().uri("/animes/{id}", 1).exchange().expectStatus().isOk();
+    }
+
+    client
+        .get()
+        .uri("/animes/{id}", 1)
+        .exchange()
+        .expectStatus().isEqualTo(429)
+        .expectHeader().exists(HttpHeaders.RETRY_AFTER)
+        .expectBody()
+        .jsonPath("$.status").isEqualTo(429);
+
+    Assertions.assertEquals(1.0, meterRegistry.get("webflux.ratelimit.rejections")
+        .tag("route", "GET /animes/{id}")
+        .tag("reason", "rate_limited")
+        .counter().count());
+  }
+
+  @Test
+  @DisplayName("findById keeps separate buckets per user")
+  @WithMockUser(username = "other-user", roles = "USER")
+  void findById_ReturnsOk_WhenAnotherUserIsRateLimited() {
+    client.get().uri("/animes/{id}", 1).exchange().expectStatus().isOk();
+  }
+
+}
@@ -2,8 +2,15 @@ package com.emendes.webflux.unit.controller;
 
 import com.emendes.webflux.controller.AnimeController;
 import com.emendes.webflux.domain.Anime;
+import com.emendes.webflux.domain.AnimeChangeEvent;
+import com.emendes.webflux.domain.AnimeImportResult;
+import com.emendes.webflux.domain.AnimeSearchHit;
+import com.emendes.webflux.domain.AnimeSuggestion;
+import com.emendes.webflux.service.AnimeImportService;
 import com.emendes.webflux.service.AnimeService;
+import com.emendes.webflux.service.EncodedCatalog;
 import com.emendes.webflux.util.creator.AnimeCreator;
+import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -11,16 +18,22 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.BDDMockito;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 
 @ExtendWith(SpringExtension.class)
 class AnimeControllerTest {
@@ -29,13 +42,23 @@ class AnimeControllerTest {
   private AnimeController animeController;
   @Mock
   private AnimeService animeServiceMock;
+  @Mock
+  private AnimeImportService animeImportServiceMock;
 
   private final Anime anime = AnimeCreator.createValidAnime();
+  private final EncodedCatalog catalog = new EncodedCatalog("1-0-1",
+      "[{\"id\":1}]".getBytes(StandardCharsets.UTF_8), new byte[]{31, -117, 8});
 
   @BeforeEach
   public void setUp() {
     BDDMockito.when(animeServiceMock.findAll()).thenReturn(Flux.just(anime));
 
+    BDDMockito.when(animeServiceMock.findCatalogVersion()).thenReturn(Mono.just("1-0-1"));
+
+    BDDMockito.when(animeServiceMock.findAllEncoded("1-0-1")).thenReturn(Mono.just(catalog));
+
+    BDDMockito.when(animeServiceMock.findPage(any(), anyInt())).thenReturn(Flux.just(anime));
+
     BDDMockito.when(animeServiceMock.findById(1)).thenReturn(Mono.just(anime));
 
     BDDMockito.when(animeServiceMock.save(any(Anime.class)))
@@ -49,20 +72,166 @@ class AnimeControllerTest {
   }
 
   @Test
-  @DisplayName("listAll returns a flux of Anime")
-  void listAll_ReturnsFluxOfAnime_WhenSuccessful() {
-    StepVerifier.create(animeController.listAll())
+  @DisplayName("listAll returns the encoded catalog with the catalog ETag")
+  void listAll_ReturnsEncodedCatalog_WhenSuccessful() {
+    StepVerifier.create(animeController.listAll(null, null))
         .expectSubscription()
-        .expectNext(anime)
+        .assertNext(response -> {
+          Assertions.assertThat(response.getHeaders().getETag()).isEqualTo("\"catalog-1-0-1\"");
+          Assertions.assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isNull();
+          Assertions.assertThat(bytes(response.getBody())).isEqualTo(catalog.json());
+        })
+        .verifyComplete();
+
+    BDDMockito.verify(animeServiceMock, Mockito.never()).findAll();
+  }
+
+  @Test
+  @DisplayName("listAll returns the gzip copy of the catalog when the client accepts gzip")
+  void listAll_ReturnsGzipCatalog_WhenClientAcceptsGzip() {
+    StepVerifier.create(animeController.listAll(null, "br;q=1.0, gzip;q=0.8"))
+        .expectSubscription()
+        .assertNext(response -> {
+          Assertions.assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+          Assertions.assertThat(bytes(response.getBody())).isEqualTo(catalog.gzip());
+        })
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("listAll returns the plain catalog when the client refuses gzip")
+  void listAll_ReturnsPlainCatalog_WhenClientRefusesGzip() {
+    StepVerifier.create(animeController.listAll(null, "gzip;q=0"))
+        .expectSubscription()
+        .assertNext(response -> Assertions.assertThat(bytes(response.getBody())).isEqualTo(catalog.json()))
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("listAll returns not modified without listing when If-None-Match holds the catalog ETag")
+  void listAll_ReturnsNotModified_WhenCatalogIsUnchanged() {
+    StepVerifier.create(animeController.listAll("\"catalog-0-0-0\", \"catalog-1-0-1\"", null))
+        .expectSubscription()
+        .assertNext(response -> {
+          Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+          Assertions.assertThat(response.getBody()).isNull();
+        })
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("changes streams server-sent events identified by sequence, resuming after Last-Event-ID")
+  void changes_ReturnsServerSentEvents_WhenSuccessful() {
+    AnimeChangeEvent event = new AnimeChangeEvent(42, AnimeChangeEvent.Type.UPDATED, 1, anime.getName());
+    BDDMockito.when(animeServiceMock.changes(41L)).thenReturn(Flux.just(event));
+
+    StepVerifier.create(animeController.changes(41L, 7L).take(1))
+        .expectSubscription()
+        .assertNext(sse -> {
+          Assertions.assertThat(sse.id()).isEqualTo("42");
+          Assertions.assertThat(sse.event()).isEqualTo("UPDATED");
+          Assertions.assertThat(sse.data()).isEqualTo(event);
+        })
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("listPage returns a page of Anime with next cursor when the page is full")
+  void listPage_ReturnsPageWithNextCursor_WhenPageIsFull() {
+    StepVerifier.create(animeController.listPage(null, null, 1))
+        .expectSubscription()
+        .assertNext(response -> {
+          Assertions.assertThat(response.getBody()).containsExactly(anime);
+          Assertions.assertThat(response.getHeaders().getFirst("X-Next-Cursor")).isNotBlank();
+        })
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("listPage returns a page of Anime without next cursor when it is the last page")
+  void listPage_ReturnsPageWithoutNextCursor_WhenItIsTheLastPage() {
+    StepVerifier.create(animeController.listPage(null, null, 10))
+        .expectSubscription()
+        .assertNext(response -> {
+          Assertions.assertThat(response.getBody()).containsExactly(anime);
+          Assertions.assertThat(response.getHeaders().containsKey("X-Next-Cursor")).isFalse();
+        })
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("search by prefix returns a page of Anime with next cursor when the page is full")
+  void search_ReturnsPageWithNextCursor_WhenPrefixPageIsFull() {
+    BDDMockito.when(animeServiceMock.searchByPrefix("tensei", "", 0, 1)).thenReturn(Flux.just(anime));
+
+    StepVerifier.create(animeController.search("tensei", "prefix", null, 1))
+        .expectSubscription()
+        .assertNext(response -> {
+          Assertions.assertThat(response.getBody()).containsExactly(anime);
+          Assertions.assertThat(response.getHeaders().getFirst("X-Next-Cursor")).isNotBlank();
+        })
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("search by full text resumes after the rank and id of the cursor")
+  void search_ResumesAfterCursor_WhenFullTextCursorIsGiven() {
+    AnimeSearchHit hit = new AnimeSearchHit(1, anime.getName(), 0, 0.5f);
+    BDDMockito.when(animeServiceMock.searchFullText("slime", Float.MAX_VALUE, 0, 1)).thenReturn(Flux.just(hit));
+    BDDMockito.when(animeServiceMock.searchFullText("slime", 0.5f, 1, 1)).thenReturn(Flux.empty());
+
+    StepVerifier.create(animeController.search("slime", "fulltext", null, 1)
+            .map(response -> response.getHeaders().getFirst("X-Next-Cursor"))
+            .flatMap(cursor -> animeController.search("slime", "fulltext", cursor, 1)))
+        .expectSubscription()
+        .assertNext(response -> {
+          Assertions.assertThat(response.getBody()).isEmpty();
+          Assertions.assertThat(response.getHeaders().containsKey("X-Next-Cursor")).isFalse();
+        })
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("search throws bad request when the mode is unknown")
+  void search_ThrowsBadRequest_WhenModeIsUnknown() {
+    Assertions.assertThatThrownBy(() -> animeController.search("slime", "fuzzy", null, 20))
+        .isInstanceOf(ResponseStatusException.class)
+        .hasMessageContaining("400");
+  }
+
+  @Test
+  @DisplayName("suggest returns the suggestions of the index")
+  void suggest_ReturnsSuggestions_WhenSuccessful() {
+    AnimeSuggestion suggestion = new AnimeSuggestion(1, anime.getName());
+    BDDMockito.when(animeServiceMock.suggest("ten", 10)).thenReturn(List.of(suggestion));
+
+    StepVerifier.create(animeController.suggest("ten", 10))
+        .expectSubscription()
+        .expectNext(List.of(suggestion))
         .verifyComplete();
   }
 
   @Test
   @DisplayName("findById returns a mono of Anime when it exists")
   void findById_ReturnsMonoOfAnime_WhenItExists() {
-    StepVerifier.create(animeController.findById(1))
+    StepVerifier.create(animeController.findById(1, null))
         .expectSubscription()
-        .expectNext(anime)
+        .assertNext(response -> {
+          Assertions.assertThat(response.getBody()).isEqualTo(anime);
+          Assertions.assertThat(response.getHeaders().getETag()).isEqualTo("\"0\"");
+        })
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("findById returns not modified when If-None-Match holds the current ETag")
+  void findById_ReturnsNotModified_WhenETagMatches() {
+    StepVerifier.create(animeController.findById(1, "W/\"0\""))
+        .expectSubscription()
+        .assertNext(response -> {
+          Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+          Assertions.assertThat(response.getBody()).isNull();
+        })
         .verifyComplete();
   }
 
@@ -88,14 +257,42 @@ class AnimeControllerTest {
         .verifyComplete();
   }
 
+  @Test
+  @DisplayName("importAnimes returns Flux of AnimeImportResult when import successful")
+  void importAnimes_ReturnsFluxOfAnimeImportResult_WhenImportSuccessful() {
+    AnimeImportResult result = new AnimeImportResult(0, 2, List.of(), null);
+    BDDMockito.when(animeImportServiceMock.importAll(any()))
+        .thenReturn(Flux.just(result));
+
+    Anime animeToBeSaved = AnimeCreator.createAnimeToBeSaved();
+
+    StepVerifier.create(animeController.importAnimes(Flux.just(animeToBeSaved, animeToBeSaved)))
+        .expectSubscription()
+        .expectNext(result)
+        .verifyComplete();
+  }
+
   @Test
   @DisplayName("delete returns a mono of Void when delete successful")
   void delete_ReturnsMonoOfVoid_WhenDeleteSuccessful() {
-    StepVerifier.create(animeController.delete(1))
+    StepVerifier.create(animeController.delete(1, null))
         .expectSubscription()
         .verifyComplete();
   }
 
+  @Test
+  @DisplayName("delete passes the If-Match version to the service")
+  void delete_PassesExpectedVersion_WhenIfMatchIsPresent() {
+    BDDMockito.when(animeServiceMock.delete(1, 3))
+        .thenReturn(Mono.empty());
+
+    StepVerifier.create(animeController.delete(1, "\"3\""))
+        .expectSubscription()
+        .verifyComplete();
+
+    BDDMockito.verify(animeServiceMock).delete(1, 3);
+  }
+
   @Test
   @DisplayName("update returns a mono of Void when update successful")
   void update_ReturnsMonoOfAnime_WhenUpdateSuccessful() {
@@ -104,9 +301,38 @@ class AnimeControllerTest {
 
     Anime animeToBeUpdated = AnimeCreator.createValidAnime();
 
-    StepVerifier.create(animeController.update(1, animeToBeUpdated))
+    StepVerifier.create(animeController.update(1, null, animeToBeUpdated))
         .expectSubscription()
         .verifyComplete();
   }
 
-}
\ No newline at end of file
+  @Test
+  @DisplayName("update passes the If-Match version to the service")
+  void update_PassesExpectedVersion_WhenIfMatchIsPresent() {
+    BDDMockito.when(animeServiceMock.update(any(Anime.class), eq(3)))
+        .thenReturn(Mono.empty());
+
+    StepVerifier.create(animeController.update(1, "\"3\"", AnimeCreator.createValidAnime()))
+        .expectSubscription()
+        .verifyComplete();
+
+    BDDMockito.verify(animeServiceMock).update(AnimeCreator.createValidAnime(), 3);
+  }
+
+  @Test
+  @DisplayName("update throws precondition failed when If-Match is not an anime ETag")
+  void update_ThrowsPreconditionFailed_WhenIfMatchIsNotAnAnimeETag() {
+    Anime animeToBeUpdated = AnimeCreator.createValidAnime();
+
+    Assertions.assertThatThrownBy(() -> animeController.update(1, "\"catalog-1-0-1\"", animeToBeUpdated))
+        .isInstanceOf(ResponseStatusException.class)
+        .hasMessageContaining("412");
+  }
+
+  private static byte[] bytes(DataBuffer dataBuffer) {
+    byte[] bytes = new byte[dataBuffer.readableByteCount()];
+    dataBuffer.read(bytes);
+    return bytes;
+  }
+
+}
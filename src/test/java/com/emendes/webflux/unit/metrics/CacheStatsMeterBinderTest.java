@@ -0,0 +1,45 @@
+package com.emendes.webflux.unit.metrics;
+
+import com.emendes.webflux.metrics.CacheStatsMeterBinder;
+import com.emendes.webflux.warmup.WarmupCompletedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class CacheStatsMeterBinderTest {
+
+  private final Cache<Integer, String> cache = Caffeine.newBuilder().recordStats().build();
+
+  private SimpleMeterRegistry meterRegistry;
+
+  private CacheStatsMeterBinder cacheStatsMeterBinder;
+
+  @BeforeEach
+  public void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    cacheStatsMeterBinder = new CacheStatsMeterBinder("animes", cache::stats);
+    cacheStatsMeterBinder.bindTo(meterRegistry);
+  }
+
+  @Test
+  @DisplayName("cache.gets leaves out the hits and misses counted until the warm-up completed")
+  void bindTo_LeavesOutWarmupGets_WhenWarmupCompleted() {
+    cache.get(1, key -> "Naruto");
+    cache.get(1, key -> "Naruto");
+
+    cacheStatsMeterBinder.onApplicationEvent(new WarmupCompletedEvent(this));
+    cache.get(1, key -> "Naruto");
+
+    Assertions.assertEquals(1.0, gets("hit"));
+    Assertions.assertEquals(0.0, gets("miss"));
+  }
+
+  private double gets(String result) {
+    return meterRegistry.get("cache.gets").tag("cache", "animes").tag("result", result).functionCounter().count();
+  }
+
+}
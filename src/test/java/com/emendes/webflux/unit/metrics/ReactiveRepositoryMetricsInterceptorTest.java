@@ -0,0 +1,102 @@
+package com.emendes.webflux.unit.metrics;
+
+import com.emendes.webflux.domain.Anime;
+import com.emendes.webflux.metrics.ReactiveRepositoryMetricsInterceptor;
+import com.emendes.webflux.repository.AnimeRepository;
+import com.emendes.webflux.util.creator.AnimeCreator;
+import com.emendes.webflux.warmup.WarmupWebFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+@ExtendWith(SpringExtension.class)
+class ReactiveRepositoryMetricsInterceptorTest {
+
+  @Mock
+  private AnimeRepository animeRepositoryMock;
+
+  private SimpleMeterRegistry meterRegistry;
+
+  private AnimeRepository animeRepository;
+
+  private final Anime anime = AnimeCreator.createValidAnime();
+
+  @BeforeEach
+  public void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+    beanFactory.registerSingleton("meterRegistry", meterRegistry);
+
+    ProxyFactory proxyFactory = new ProxyFactory(animeRepositoryMock);
+    proxyFactory.addInterface(AnimeRepository.class);
+    proxyFactory.addAdvice(new ReactiveRepositoryMetricsInterceptor(
+        beanFactory.getBeanProvider(MeterRegistry.class), "AnimeRepository"));
+    animeRepository = (AnimeRepository) proxyFactory.getProxy();
+  }
+
+  @Test
+  @DisplayName("a Mono query is timed only once it is subscribed and completes")
+  void findById_RecordsSuccess_WhenMonoIsSubscribed() {
+    BDDMockito.when(animeRepositoryMock.findById(1)).thenReturn(Mono.just(anime));
+
+    Mono<Anime> query = animeRepository.findById(1);
+    Assertions.assertNull(meterRegistry.find("spring.data.repository.invocations").timer());
+
+    StepVerifier.create(query)
+        .expectSubscription()
+        .expectNext(anime)
+        .verifyComplete();
+
+    Assertions.assertEquals(1, meterRegistry.get("spring.data.repository.invocations")
+        .tag("repository", "AnimeRepository")
+        .tag("method", "findById")
+        .tag("state", "SUCCESS")
+        .timer().count());
+  }
+
+  @Test
+  @DisplayName("every subscription to a Flux query is timed separately and errors are tagged")
+  void findAll_RecordsEachSubscription_WhenFluxIsResubscribed() {
+    AtomicInteger calls = new AtomicInteger();
+    BDDMockito.when(animeRepositoryMock.findAll()).thenReturn(Flux.defer(() -> calls.incrementAndGet() == 1
+        ? Flux.error(new IllegalStateException("connection closed"))
+        : Flux.just(anime)));
+
+    StepVerifier.create(animeRepository.findAll().retry(1))
+        .expectSubscription()
+        .expectNext(anime)
+        .verifyComplete();
+
+    Assertions.assertEquals(1, meterRegistry.get("spring.data.repository.invocations")
+        .tag("method", "findAll").tag("state", "ERROR").timer().count());
+    Assertions.assertEquals(1, meterRegistry.get("spring.data.repository.invocations")
+        .tag("method", "findAll").tag("state", "SUCCESS").timer().count());
+  }
+
+  @Test
+  @DisplayName("a query made for a warm-up request is not timed")
+  void findById_RecordsNothing_WhenRequestIsWarmup() {
+    BDDMockito.when(animeRepositoryMock.findById(1)).thenReturn(Mono.just(anime));
+
+    StepVerifier.create(WarmupWebFilter.warmup(animeRepository.findById(1)))
+        .expectSubscription()
+        .expectNext(anime)
+        .verifyComplete();
+
+    Assertions.assertNull(meterRegistry.find("spring.data.repository.invocations").timer());
+  }
+}
@@ -0,0 +1,129 @@
+package com.emendes.webflux.unit.ratelimit;
+
+import com.emendes.webflux.ratelimit.AdaptiveConcurrencyLimiter;
+import com.emendes.webflux.ratelimit.RateLimitExceededException;
+import com.emendes.webflux.ratelimit.RateLimitRule;
+import com.emendes.webflux.ratelimit.RateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class RateLimiterTest {
+
+  private static final PathContainer BATCH = PathContainer.parsePath("/animes/batch");
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final AtomicInteger pendingAcquires = new AtomicInteger();
+
+  private RateLimiter rateLimiter(String rule, int maxInFlightPerClient, int maxConcurrency) {
+    return new RateLimiter(List.of(RateLimitRule.parse(rule)),
+        List.of(PathPatternParser.defaultInstance.parse("/animes/changes/**")), 100, Duration.ofMinutes(1), maxInFlightPerClient,
+        new AdaptiveConcurrencyLimiter(pendingAcquires::get, 1, maxConcurrency, 5), meterRegistry);
+  }
+
+  @Test
+  @DisplayName("parse reads method, path pattern, capacity and period")
+  void parse_ReadsRule_WhenRuleIsValid() {
+    RateLimitRule rule = RateLimitRule.parse(" POST /animes/batch=10/5s ");
+
+    Assertions.assertThat(rule.method()).isEqualTo(HttpMethod.POST);
+    Assertions.assertThat(rule.capacity()).isEqualTo(10);
+    Assertions.assertThat(rule.period()).isEqualTo(Duration.ofSeconds(5));
+    Assertions.assertThat(rule.matches(HttpMethod.POST, BATCH)).isTrue();
+    Assertions.assertThat(rule.matches(HttpMethod.GET, BATCH)).isFalse();
+    Assertions.assertThat(RateLimitRule.parse("* /animes/**=1/1s").matches(HttpMethod.GET, BATCH)).isTrue();
+  }
+
+  @Test
+  @DisplayName("parse throws IllegalArgumentException when the rule is malformed")
+  void parse_ThrowsIllegalArgumentException_WhenRuleIsMalformed() {
+    Assertions.assertThatThrownBy(() -> RateLimitRule.parse("POST /animes/batch"))
+        .isInstanceOf(IllegalArgumentException.class);
+    Assertions.assertThatThrownBy(() -> RateLimitRule.parse("FETCH /animes=1/1s"))
+        .isInstanceOf(IllegalArgumentException.class);
+    Assertions.assertThatThrownBy(() -> RateLimitRule.parse("GET /animes=0/1s"))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  @DisplayName("acquire throws 429 with Retry-After once the client bucket is empty")
+  void acquire_ThrowsTooManyRequests_WhenBucketIsEmpty() {
+    RateLimiter rateLimiter = rateLimiter("POST /animes/batch=2/1m", 10, 10);
+
+    rateLimiter.acquire(HttpMethod.POST, BATCH, "admin").release();
+    rateLimiter.acquire(HttpMethod.POST, BATCH, "admin").release();
+
+    Assertions.assertThatThrownBy(() -> rateLimiter.acquire(HttpMethod.POST, BATCH, "admin"))
+        .isInstanceOfSatisfying(RateLimitExceededException.class, exception -> {
+          Assertions.assertThat(exception.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+          Assertions.assertThat(Long.parseLong(exception.getResponseHeaders().getFirst(HttpHeaders.RETRY_AFTER)))
+              .isBetween(1L, 30L);
+        });
+    rateLimiter.acquire(HttpMethod.POST, BATCH, "other-admin").release();
+    rateLimiter.acquire(HttpMethod.GET, PathContainer.parsePath("/animes"), "admin").release();
+
+    Assertions.assertThat(meterRegistry.get("webflux.ratelimit.rejections").tag("reason", "rate_limited")
+        .counter().count()).isEqualTo(1.0);
+  }
+
+  @Test
+  @DisplayName("acquire throws 429 when the client already has too many requests in flight")
+  void acquire_ThrowsTooManyRequests_WhenClientHasTooManyRequestsInFlight() {
+    RateLimiter rateLimiter = rateLimiter("* /animes/**=100/1s", 1, 10);
+
+    RateLimiter.Permit permit = rateLimiter.acquire(HttpMethod.POST, BATCH, "admin");
+
+    Assertions.assertThatThrownBy(() -> rateLimiter.acquire(HttpMethod.POST, BATCH, "admin"))
+        .isInstanceOfSatisfying(RateLimitExceededException.class,
+            exception -> Assertions.assertThat(exception.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS));
+
+    permit.release();
+    rateLimiter.acquire(HttpMethod.POST, BATCH, "admin").release();
+  }
+
+  @Test
+  @DisplayName("acquire does not count requests to excluded paths")
+  void acquire_DoesNotLimit_WhenPathIsExcluded() {
+    RateLimiter rateLimiter = rateLimiter("* /animes/**=1/1m", 1, 1);
+
+    for (int i = 0; i < 3; i++) {
+      rateLimiter.acquire(HttpMethod.GET, PathContainer.parsePath("/animes/changes"), "user");
+    }
+    rateLimiter.acquire(HttpMethod.POST, BATCH, "user").release();
+  }
+
+  @Test
+  @DisplayName("acquire throws 503 and lowers the global limit while the connection pool queue is long")
+  void acquire_ThrowsServiceUnavailable_WhenConnectionPoolQueueGrows() {
+    RateLimiter rateLimiter = rateLimiter("* /animes/**=100/1s", 10, 4);
+
+    RateLimiter.Permit first = rateLimiter.acquire(HttpMethod.POST, BATCH, "a");
+    RateLimiter.Permit second = rateLimiter.acquire(HttpMethod.POST, BATCH, "b");
+    RateLimiter.Permit third = rateLimiter.acquire(HttpMethod.POST, BATCH, "c");
+    pendingAcquires.set(10);
+
+    Assertions.assertThatThrownBy(() -> rateLimiter.acquire(HttpMethod.POST, BATCH, "d"))
+        .isInstanceOfSatisfying(RateLimitExceededException.class,
+            exception -> Assertions.assertThat(exception.getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+    Assertions.assertThat(meterRegistry.get("webflux.ratelimit.concurrency.limit").gauge().value()).isEqualTo(3.0);
+
+    pendingAcquires.set(0);
+    first.release();
+    second.release();
+    third.release();
+
+    Assertions.assertThat(meterRegistry.get("webflux.ratelimit.concurrency.limit").gauge().value()).isEqualTo(4.0);
+    rateLimiter.acquire(HttpMethod.POST, BATCH, "d").release();
+  }
+
+}
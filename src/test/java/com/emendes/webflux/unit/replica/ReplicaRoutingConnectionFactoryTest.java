@@ -0,0 +1,153 @@
+package com.emendes.webflux.unit.replica;
+
+import com.emendes.webflux.domain.Anime;
+import com.emendes.webflux.replica.ReplicaRoutingConnectionFactory;
+import com.emendes.webflux.repository.AnimeRepository;
+import com.emendes.webflux.service.AnimeCache;
+import com.emendes.webflux.service.AnimeCatalogBodyCache;
+import com.emendes.webflux.service.AnimeChangeFeed;
+import com.emendes.webflux.service.AnimeReadCoalescer;
+import com.emendes.webflux.service.AnimeService;
+import com.emendes.webflux.service.AnimeSuggestionIndex;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.R2dbcNonTransientResourceException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+class ReplicaRoutingConnectionFactoryTest {
+
+  private ConnectionFactory primary;
+  private ConnectionFactory replica;
+
+  @BeforeEach
+  public void setUp() {
+    primary = standInDatabase("primary");
+    replica = standInDatabase("replica");
+  }
+
+  @Test
+  @DisplayName("create hands out primary connections when the publisher is not marked read-only")
+  void create_UsesPrimary_WhenNotReadOnly() {
+    ReplicaRoutingConnectionFactory connectionFactory = routing(List.of(replica), Duration.ZERO);
+
+    StepVerifier.create(databaseName(connectionFactory))
+        .expectNext("primary")
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("create hands out replica connections when the publisher is marked read-only")
+  void create_UsesReplica_WhenReadOnly() {
+    ReplicaRoutingConnectionFactory connectionFactory = routing(List.of(replica), Duration.ZERO);
+
+    StepVerifier.create(ReplicaRoutingConnectionFactory.readOnly(databaseName(connectionFactory)))
+        .expectNext("replica")
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("create ejects a failing replica and falls back to the next target")
+  void create_EjectsReplicaAndFallsBack_WhenReplicaFails() {
+    ConnectionFactory failingReplica = Mockito.mock(ConnectionFactory.class);
+    BDDMockito.willReturn(Mono.error(new R2dbcNonTransientResourceException("replica is down")))
+        .given(failingReplica).create();
+    ReplicaRoutingConnectionFactory connectionFactory = routing(List.of(failingReplica), Duration.ZERO);
+
+    StepVerifier.create(ReplicaRoutingConnectionFactory.readOnly(databaseName(connectionFactory))
+            .then(ReplicaRoutingConnectionFactory.readOnly(databaseName(connectionFactory))))
+        .expectNext("primary")
+        .verifyComplete();
+
+    BDDMockito.verify(failingReplica, Mockito.times(1)).create();
+    Assertions.assertEquals(1, connectionFactory.ejectedReplicas());
+  }
+
+  @Test
+  @DisplayName("create keeps a user's reads on the primary within the read-your-writes window")
+  void create_UsesPrimaryForReads_WhenUserWroteRecently() {
+    ReplicaRoutingConnectionFactory connectionFactory = routing(List.of(replica), Duration.ofMinutes(1));
+    Mono<String> write = connectionFactory.trackWrites(Mono.just("written"));
+    Mono<String> read = ReplicaRoutingConnectionFactory.readOnly(databaseName(connectionFactory));
+
+    StepVerifier.create(write.then(read)
+            .contextWrite(ReactiveSecurityContextHolder.withAuthentication(new TestingAuthenticationToken("writer", null))))
+        .expectNext("primary")
+        .verifyComplete();
+
+    StepVerifier.create(read
+            .contextWrite(ReactiveSecurityContextHolder.withAuthentication(new TestingAuthenticationToken("reader", null))))
+        .expectNext("replica")
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("findById refills the shared cache from the primary after a write, even for another user")
+  void findById_RefillsCacheFromPrimary_AfterWriteInvalidatesIt() {
+    ReplicaRoutingConnectionFactory connectionFactory = routing(List.of(replica), Duration.ZERO);
+    AnimeRepository animeRepository = Mockito.mock(AnimeRepository.class);
+    // What the read-only routing interceptor does to repository reads
+    BDDMockito.when(animeRepository.findById(1)).thenReturn(ReplicaRoutingConnectionFactory.readOnly(
+        databaseName(connectionFactory).map(name -> new Anime(1, name, 1))));
+    AnimeCache animeCache = new AnimeCache(100, Duration.ofMinutes(5), Duration.ofSeconds(5), Duration.ofSeconds(5));
+    AnimeService animeService = new AnimeService(animeRepository, animeCache,
+        Mockito.mock(AnimeSuggestionIndex.class), Mockito.mock(AnimeCatalogBodyCache.class),
+        Mockito.mock(AnimeReadCoalescer.class), Mockito.mock(AnimeChangeFeed.class));
+
+    connectionFactory.trackWrites(Mono.just("written"))
+        .contextWrite(ReactiveSecurityContextHolder.withAuthentication(new TestingAuthenticationToken("writer", null)))
+        .block();
+    animeCache.invalidate(1);
+
+    StepVerifier.create(animeService.findById(1)
+            .contextWrite(ReactiveSecurityContextHolder.withAuthentication(new TestingAuthenticationToken("reader", null))))
+        .expectNextMatches(anime -> anime.getName().equals("primary"))
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("create hands out primary connections when a read-only publisher is also marked for the primary")
+  void create_UsesPrimary_WhenReadOnlyPublisherIsMarkedForPrimary() {
+    ReplicaRoutingConnectionFactory connectionFactory = routing(List.of(replica), Duration.ZERO);
+
+    StepVerifier.create(ReplicaRoutingConnectionFactory.onPrimary(
+            ReplicaRoutingConnectionFactory.readOnly(databaseName(connectionFactory))))
+        .expectNext("primary")
+        .verifyComplete();
+  }
+
+  private ReplicaRoutingConnectionFactory routing(List<ConnectionFactory> replicas, Duration readYourWritesWindow) {
+    return new ReplicaRoutingConnectionFactory(primary, replicas, Duration.ofSeconds(30), readYourWritesWindow, 100);
+  }
+
+  private static Mono<String> databaseName(ConnectionFactory connectionFactory) {
+    return DatabaseClient.create(connectionFactory)
+        .sql("SELECT name FROM t_database")
+        .map((row, metadata) -> row.get("name", String.class))
+        .one();
+  }
+
+  private static ConnectionFactory standInDatabase(String name) {
+    ConnectionFactory connectionFactory = ConnectionFactories.get(
+        "r2dbc:h2:mem:///" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+    DatabaseClient databaseClient = DatabaseClient.create(connectionFactory);
+    databaseClient.sql("CREATE TABLE t_database (name VARCHAR(32))").then()
+        .then(databaseClient.sql("INSERT INTO t_database (name) VALUES (:name)").bind("name", name).then())
+        .block();
+    return connectionFactory;
+  }
+
+}
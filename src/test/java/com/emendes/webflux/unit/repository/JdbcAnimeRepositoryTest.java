@@ -0,0 +1,120 @@
+package com.emendes.webflux.unit.repository;
+
+import com.emendes.webflux.domain.Anime;
+import com.emendes.webflux.repository.jdbc.JdbcAnimeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+class JdbcAnimeRepositoryTest {
+
+  private NamedParameterJdbcTemplate jdbcTemplate;
+  private Scheduler scheduler;
+  private JdbcAnimeRepository jdbcAnimeRepository;
+
+  @BeforeEach
+  public void setUp() {
+    DriverManagerDataSource dataSource = new DriverManagerDataSource(
+        "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+    jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+    jdbcTemplate.getJdbcTemplate().execute("""
+        CREATE TABLE t_anime (
+            id INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+            name VARCHAR(255) NOT NULL,
+            version INTEGER NOT NULL DEFAULT 0
+        )""");
+    scheduler = Schedulers.newBoundedElastic(4, 100, "jdbc-test");
+    jdbcAnimeRepository = new JdbcAnimeRepository(
+        jdbcTemplate, new TransactionTemplate(new DataSourceTransactionManager(dataSource)), scheduler);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    scheduler.dispose();
+  }
+
+  @Test
+  @DisplayName("save inserts a new anime with version 0 and findById returns it")
+  void save_InsertsAnime_WhenIdIsNull() {
+    StepVerifier.create(jdbcAnimeRepository.save(Anime.builder().name("Naruto").build())
+            .flatMap(saved -> jdbcAnimeRepository.findById(saved.getId())))
+        .expectSubscription()
+        .expectNextMatches(anime -> anime.getId() != null && "Naruto".equals(anime.getName()) && anime.getVersion() == 0)
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("save fails with OptimisticLockingFailureException when the version is stale")
+  void save_Fails_WhenVersionIsStale() {
+    StepVerifier.create(jdbcAnimeRepository.save(Anime.builder().name("Naruto").build())
+            .flatMap(saved -> jdbcAnimeRepository.save(saved.withName("Bleach"))
+                .then(jdbcAnimeRepository.save(saved.withName("One Piece")))))
+        .expectSubscription()
+        .expectError(OptimisticLockingFailureException.class)
+        .verify();
+  }
+
+  @Test
+  @DisplayName("insertAll returns the animes with their generated ids in input order")
+  void insertAll_ReturnsAnimesWithIdsInOrder_WhenListHasSeveralAnimes() {
+    List<Anime> animes = List.of(new Anime(null, "A", null), new Anime(null, "B", null), new Anime(null, "C", null));
+
+    StepVerifier.create(jdbcAnimeRepository.insertAll(animes).map(Anime::getName))
+        .expectSubscription()
+        .expectNext("A", "B", "C")
+        .verifyComplete();
+
+    StepVerifier.create(jdbcAnimeRepository.findPageAfterId(0, 10).map(Anime::getId))
+        .expectSubscription()
+        .expectNextCount(3)
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("insertAll rolls back every insert when one of them fails")
+  void insertAll_RollsBack_WhenAnInsertFails() {
+    List<Anime> animes = List.of(new Anime(null, "A", null), new Anime(null, "B", null), new Anime(null, null, null));
+
+    StepVerifier.create(jdbcAnimeRepository.insertAll(animes))
+        .expectSubscription()
+        .expectError()
+        .verify();
+
+    Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM t_anime", Map.of(), Long.class);
+    Assertions.assertEquals(0L, count);
+  }
+
+  @Test
+  @DisplayName("updateName returns the row as stored, with the version raised")
+  void updateName_ReturnsStoredRow_WhenAnimeExists() {
+    StepVerifier.create(jdbcAnimeRepository.save(Anime.builder().name("Naruto").build())
+            .flatMap(saved -> jdbcAnimeRepository.updateName(saved.getId(), "Bleach")))
+        .expectSubscription()
+        .expectNextMatches(updated -> updated.getName().equals("Bleach") && updated.getVersion() == 1)
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("updateNameIfVersion updates nothing when the version does not match")
+  void updateNameIfVersion_ReturnsEmpty_WhenVersionDoesNotMatch() {
+    StepVerifier.create(jdbcAnimeRepository.save(Anime.builder().name("Naruto").build())
+            .flatMap(saved -> jdbcAnimeRepository.updateNameIfVersion(saved.getId(), "Bleach", 5)))
+        .expectSubscription()
+        .verifyComplete();
+  }
+
+}
@@ -0,0 +1,80 @@
+package com.emendes.webflux.unit.schema;
+
+import com.emendes.webflux.schema.SchemaMigrator;
+import io.r2dbc.spi.ConnectionFactories;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+class SchemaMigratorTest {
+
+  private static final String LOCATION = "classpath:db/test-migration";
+
+  private DatabaseClient databaseClient;
+
+  @BeforeEach
+  public void setUp() {
+    databaseClient = DatabaseClient.create(ConnectionFactories.get(
+        "r2dbc:h2:mem:///" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1"));
+  }
+
+  @Test
+  @DisplayName("migrate applies pending scripts in version order and records them only once")
+  void migrate_AppliesPendingScriptsOnce_WhenRunTwice() {
+    SchemaMigrator schemaMigrator = schemaMigrator(List.of());
+
+    StepVerifier.create(schemaMigrator.migrate().then(schemaMigrator.migrate())
+            .thenMany(databaseClient.sql("SELECT version FROM t_schema_version ORDER BY version")
+                .map((row, metadata) -> row.get("version", Integer.class))
+                .all()))
+        .expectSubscription()
+        .expectNext(1, 2)
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("migrate fails when an applied script was changed afterwards")
+  void migrate_Fails_WhenAppliedScriptWasChanged() {
+    SchemaMigrator schemaMigrator = schemaMigrator(List.of());
+
+    StepVerifier.create(schemaMigrator.migrate()
+            .then(databaseClient.sql("UPDATE t_schema_version SET checksum = 'changed' WHERE version = 1").then())
+            .then(schemaMigrator.migrate()))
+        .expectSubscription()
+        .expectErrorMessage("Migration V1 was changed after it was applied")
+        .verify();
+  }
+
+  @Test
+  @DisplayName("verifyIndexes completes when the required indexes exist")
+  void verifyIndexes_Completes_WhenRequiredIndexesExist() {
+    SchemaMigrator schemaMigrator = schemaMigrator(List.of("idx_anime_name"));
+
+    StepVerifier.create(schemaMigrator.migrate().then(schemaMigrator.verifyIndexes()))
+        .expectSubscription()
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("verifyIndexes fails when a required index is missing")
+  void verifyIndexes_Fails_WhenRequiredIndexIsMissing() {
+    SchemaMigrator schemaMigrator = schemaMigrator(List.of("idx_anime_name", "uk_devdojo_user_username"));
+
+    StepVerifier.create(schemaMigrator.migrate().then(schemaMigrator.verifyIndexes()))
+        .expectSubscription()
+        .expectErrorMessage("Missing required database indexes: [uk_devdojo_user_username]")
+        .verify();
+  }
+
+  private SchemaMigrator schemaMigrator(List<String> requiredIndexes) {
+    return new SchemaMigrator(databaseClient, new DefaultResourceLoader(), LOCATION, requiredIndexes, Duration.ofSeconds(10));
+  }
+
+}
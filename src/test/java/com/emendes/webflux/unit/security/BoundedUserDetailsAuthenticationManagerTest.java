@@ -0,0 +1,115 @@
+package com.emendes.webflux.unit.security;
+
+import com.emendes.webflux.security.BoundedUserDetailsAuthenticationManager;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.MapReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.blockhound.BlockHound;
+import reactor.blockhound.BlockingOperationError;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@ExtendWith(SpringExtension.class)
+class BoundedUserDetailsAuthenticationManagerTest {
+
+  // Only threads with this prefix are treated as non-blocking, standing in for Netty event loops.
+  private static final String EVENT_LOOP_PREFIX = "test-event-loop";
+
+  private final MapReactiveUserDetailsService userDetailsService = new MapReactiveUserDetailsService(
+      User.withUsername("user@email.com").password("devdojo").roles("USER").build());
+  private final RecordingPasswordEncoder passwordEncoder = new RecordingPasswordEncoder();
+  private final Scheduler eventLoop = Schedulers.newSingle(EVENT_LOOP_PREFIX);
+  private final ExecutorService passwordHashingExecutor =
+      Executors.newFixedThreadPool(1, new CustomizableThreadFactory("password-hashing-"));
+
+  @BeforeAll
+  static void installBlockHound() {
+    BlockHound.builder()
+        .markAsBlocking(RecordingPasswordEncoder.class, "matches", "(Ljava/lang/CharSequence;Ljava/lang/String;)Z")
+        .nonBlockingThreadPredicate(current -> current.or(thread -> thread.getName().startsWith(EVENT_LOOP_PREFIX)))
+        .install();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    eventLoop.dispose();
+    passwordHashingExecutor.shutdownNow();
+  }
+
+  @Test
+  @DisplayName("authenticate checks the password on the password hashing pool when called from an event loop")
+  void authenticate_ChecksPasswordOnHashingPool_WhenCalledFromEventLoop() {
+    BoundedUserDetailsAuthenticationManager authenticationManager = new BoundedUserDetailsAuthenticationManager(
+        userDetailsService, passwordEncoder, Schedulers.fromExecutorService(passwordHashingExecutor));
+
+    StepVerifier.create(authenticationManager.authenticate(credentials()).subscribeOn(eventLoop))
+        .expectSubscription()
+        .assertNext(authentication -> Assertions.assertThat(authentication.isAuthenticated()).isTrue())
+        .verifyComplete();
+
+    Assertions.assertThat(passwordEncoder.matchingThread).startsWith("password-hashing-");
+  }
+
+  @Test
+  @DisplayName("authenticate blocks the event loop when the password check is not offloaded")
+  void authenticate_BlocksEventLoop_WhenPasswordCheckIsNotOffloaded() {
+    BoundedUserDetailsAuthenticationManager authenticationManager = new BoundedUserDetailsAuthenticationManager(
+        userDetailsService, passwordEncoder, Schedulers.immediate());
+
+    StepVerifier.create(authenticationManager.authenticate(credentials()).subscribeOn(eventLoop))
+        .expectSubscription()
+        .expectError(BlockingOperationError.class)
+        .verify();
+  }
+
+  @Test
+  @DisplayName("authenticate returns Too Many Requests when the password hashing pool rejects the check")
+  void authenticate_ReturnsTooManyRequests_WhenHashingPoolIsSaturated() {
+    passwordHashingExecutor.shutdown();
+    BoundedUserDetailsAuthenticationManager authenticationManager = new BoundedUserDetailsAuthenticationManager(
+        userDetailsService, passwordEncoder, Schedulers.fromExecutorService(passwordHashingExecutor));
+
+    StepVerifier.create(authenticationManager.authenticate(credentials()).subscribeOn(eventLoop))
+        .expectSubscription()
+        .expectErrorMatches(error -> error instanceof ResponseStatusException exception
+            && exception.getStatus() == HttpStatus.TOO_MANY_REQUESTS)
+        .verify();
+  }
+
+  private static UsernamePasswordAuthenticationToken credentials() {
+    return UsernamePasswordAuthenticationToken.unauthenticated("user@email.com", "devdojo");
+  }
+
+  static class RecordingPasswordEncoder implements PasswordEncoder {
+
+    private volatile String matchingThread;
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+      return rawPassword.toString();
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+      matchingThread = Thread.currentThread().getName();
+      return rawPassword.toString().equals(encodedPassword);
+    }
+
+  }
+
+}
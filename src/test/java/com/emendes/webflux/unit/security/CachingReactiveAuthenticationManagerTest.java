@@ -0,0 +1,84 @@
+package com.emendes.webflux.unit.security;
+
+import com.emendes.webflux.security.CachingReactiveAuthenticationManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+@ExtendWith(SpringExtension.class)
+class CachingReactiveAuthenticationManagerTest {
+
+  @Mock
+  private ReactiveAuthenticationManager delegateMock;
+
+  private CachingReactiveAuthenticationManager authenticationManager;
+
+  private final Authentication authenticated = UsernamePasswordAuthenticationToken.authenticated(
+      "user@email.com", "hashed", AuthorityUtils.createAuthorityList("ROLE_USER"));
+
+  @BeforeEach
+  public void setUp() {
+    authenticationManager = new CachingReactiveAuthenticationManager(delegateMock, 100, Duration.ofMinutes(1));
+
+    BDDMockito.when(delegateMock.authenticate(credentials("devdojo")))
+        .thenReturn(Mono.just(authenticated));
+    BDDMockito.when(delegateMock.authenticate(credentials("wrong")))
+        .thenReturn(Mono.error(new BadCredentialsException("Invalid Credentials")));
+  }
+
+  @Test
+  @DisplayName("authenticate calls the delegate only once when the same credentials are repeated")
+  void authenticate_CallsDelegateOnce_WhenCredentialsAreRepeated() {
+    StepVerifier.create(authenticationManager.authenticate(credentials("devdojo"))
+            .then(authenticationManager.authenticate(credentials("devdojo"))))
+        .expectSubscription()
+        .expectNext(authenticated)
+        .verifyComplete();
+
+    BDDMockito.verify(delegateMock, Mockito.times(1)).authenticate(credentials("devdojo"));
+  }
+
+  @Test
+  @DisplayName("authenticate does not cache failed authentications")
+  void authenticate_DoesNotCache_WhenCredentialsAreInvalid() {
+    StepVerifier.create(authenticationManager.authenticate(credentials("wrong"))
+            .onErrorResume(e -> authenticationManager.authenticate(credentials("wrong"))))
+        .expectSubscription()
+        .expectError(BadCredentialsException.class)
+        .verify();
+
+    BDDMockito.verify(delegateMock, Mockito.times(2)).authenticate(credentials("wrong"));
+  }
+
+  @Test
+  @DisplayName("evict forces the next authentication of the user through the delegate")
+  void evict_ForcesDelegateAuthentication_WhenUserIsEvicted() {
+    StepVerifier.create(authenticationManager.authenticate(credentials("devdojo"))
+            .doOnNext(authentication -> authenticationManager.evict("user@email.com"))
+            .then(authenticationManager.authenticate(credentials("devdojo"))))
+        .expectSubscription()
+        .expectNext(authenticated)
+        .verifyComplete();
+
+    BDDMockito.verify(delegateMock, Mockito.times(2)).authenticate(credentials("devdojo"));
+  }
+
+  private static Authentication credentials(String password) {
+    return UsernamePasswordAuthenticationToken.unauthenticated("user@email.com", password);
+  }
+
+}
@@ -0,0 +1,104 @@
+package com.emendes.webflux.unit.security;
+
+import com.emendes.webflux.security.MeteredReactiveAuthenticationManager;
+import com.emendes.webflux.warmup.WarmupWebFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(SpringExtension.class)
+class MeteredReactiveAuthenticationManagerTest {
+
+  @Mock
+  private ReactiveAuthenticationManager delegateMock;
+
+  private SimpleMeterRegistry meterRegistry;
+
+  private MeteredReactiveAuthenticationManager authenticationManager;
+
+  private final Authentication authenticated = UsernamePasswordAuthenticationToken.authenticated(
+      "user@email.com", "hashed", AuthorityUtils.createAuthorityList("ROLE_USER"));
+
+  @BeforeEach
+  public void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    authenticationManager = new MeteredReactiveAuthenticationManager(delegateMock, meterRegistry);
+
+    BDDMockito.when(delegateMock.authenticate(credentials("devdojo")))
+        .thenReturn(Mono.just(authenticated));
+    BDDMockito.when(delegateMock.authenticate(credentials("wrong")))
+        .thenReturn(Mono.error(new BadCredentialsException("Invalid Credentials")));
+    BDDMockito.when(delegateMock.authenticate(credentials("busy")))
+        .thenReturn(Mono.error(new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS)));
+  }
+
+  @Test
+  @DisplayName("authenticate records a success when the delegate authenticates")
+  void authenticate_RecordsSuccess_WhenDelegateAuthenticates() {
+    StepVerifier.create(authenticationManager.authenticate(credentials("devdojo")))
+        .expectSubscription()
+        .expectNext(authenticated)
+        .verifyComplete();
+
+    Assertions.assertEquals(1, count("success"));
+    Assertions.assertEquals(0, count("bad_credentials"));
+  }
+
+  @Test
+  @DisplayName("authenticate records bad_credentials when the delegate rejects the password")
+  void authenticate_RecordsBadCredentials_WhenPasswordIsWrong() {
+    StepVerifier.create(authenticationManager.authenticate(credentials("wrong")))
+        .expectSubscription()
+        .expectError(BadCredentialsException.class)
+        .verify();
+
+    Assertions.assertEquals(1, count("bad_credentials"));
+  }
+
+  @Test
+  @DisplayName("authenticate records rejected when the password hashing pool is saturated")
+  void authenticate_RecordsRejected_WhenDelegateReturnsTooManyRequests() {
+    StepVerifier.create(authenticationManager.authenticate(credentials("busy")))
+        .expectSubscription()
+        .expectError(ResponseStatusException.class)
+        .verify();
+
+    Assertions.assertEquals(1, count("rejected"));
+    Assertions.assertEquals(0, count("error"));
+  }
+
+  @Test
+  @DisplayName("authenticate records nothing for warm-up requests")
+  void authenticate_RecordsNothing_WhenRequestIsWarmup() {
+    StepVerifier.create(WarmupWebFilter.warmup(authenticationManager.authenticate(credentials("devdojo"))))
+        .expectSubscription()
+        .expectNext(authenticated)
+        .verifyComplete();
+
+    Assertions.assertEquals(0, count("success"));
+  }
+
+  private long count(String outcome) {
+    return meterRegistry.get("webflux.security.authentications").tag("outcome", outcome).timer().count();
+  }
+
+  private static Authentication credentials(String password) {
+    return UsernamePasswordAuthenticationToken.unauthenticated("user@email.com", password);
+  }
+
+}
@@ -0,0 +1,115 @@
+package com.emendes.webflux.unit.service;
+
+import com.emendes.webflux.domain.Anime;
+import com.emendes.webflux.repository.AnimeRepository;
+import com.emendes.webflux.service.AnimeCache;
+import com.emendes.webflux.service.AnimeCatalogBodyCache;
+import com.emendes.webflux.service.EncodedCatalog;
+import com.emendes.webflux.util.creator.AnimeCreator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.zip.GZIPInputStream;
+
+@ExtendWith(SpringExtension.class)
+class AnimeCatalogBodyCacheTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final AnimeRepository animeRepositoryMock = Mockito.mock(AnimeRepository.class);
+  private final AnimeCache animeCache =
+      new AnimeCache(100, Duration.ofMinutes(1), Duration.ofSeconds(1), Duration.ofMinutes(1));
+  private final Anime anime = AnimeCreator.createValidAnime();
+
+  private AnimeCatalogBodyCache animeCatalogBodyCache;
+
+  @BeforeEach
+  public void setUp() {
+    BDDMockito.when(animeRepositoryMock.findAll()).thenReturn(Flux.just(anime));
+    BDDMockito.when(animeRepositoryMock.findCatalogVersion()).thenReturn(Mono.just("1-0-1"));
+
+    animeCatalogBodyCache = new AnimeCatalogBodyCache(animeRepositoryMock, animeCache, objectMapper);
+  }
+
+  @Test
+  @DisplayName("get encodes the catalog as JSON and gzip for the requested version")
+  void get_EncodesCatalogAsJsonAndGzip_WhenSuccessful() throws IOException {
+    EncodedCatalog catalog = animeCatalogBodyCache.get("1-0-1").block();
+
+    Assertions.assertThat(catalog).isNotNull();
+    Assertions.assertThat(catalog.version()).isEqualTo("1-0-1");
+    Assertions.assertThat(catalog.json()).isEqualTo(objectMapper.writeValueAsBytes(new Anime[]{anime}));
+    try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(catalog.gzip()))) {
+      Assertions.assertThat(gzip.readAllBytes()).isEqualTo(catalog.json());
+    }
+  }
+
+  @Test
+  @DisplayName("get lists the repository once per catalog version")
+  void get_ListsRepositoryOnce_PerCatalogVersion() {
+    StepVerifier.create(animeCatalogBodyCache.get("1-0-1")
+            .then(animeCatalogBodyCache.get("1-0-1"))
+            .map(EncodedCatalog::version))
+        .expectSubscription()
+        .expectNext("1-0-1")
+        .verifyComplete();
+
+    BDDMockito.verify(animeRepositoryMock, Mockito.times(1)).findAll();
+
+    StepVerifier.create(animeCatalogBodyCache.get("2-0-2").map(EncodedCatalog::version))
+        .expectSubscription()
+        .expectNext("2-0-2")
+        .verifyComplete();
+
+    BDDMockito.verify(animeRepositoryMock, Mockito.times(2)).findAll();
+  }
+
+  @Test
+  @DisplayName("get does not keep a failed build")
+  void get_RetriesBuild_WhenPreviousBuildFailed() {
+    BDDMockito.when(animeRepositoryMock.findAll())
+        .thenReturn(Flux.error(new IllegalStateException("boom")))
+        .thenReturn(Flux.just(anime));
+
+    StepVerifier.create(animeCatalogBodyCache.get("1-0-1"))
+        .expectSubscription()
+        .expectError(IllegalStateException.class)
+        .verify();
+
+    StepVerifier.create(animeCatalogBodyCache.get("1-0-1").map(EncodedCatalog::version))
+        .expectSubscription()
+        .expectNext("1-0-1")
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("a local write drops the body without reading, and the next get rebuilds it")
+  void invalidate_DropsBodyUntilNextGet_WhenAnimeIsWritten() {
+    animeCatalogBodyCache.get("1-0-1").block();
+
+    animeCache.invalidate(1);
+
+    BDDMockito.verify(animeRepositoryMock, Mockito.never()).findCatalogVersion();
+    BDDMockito.verify(animeRepositoryMock, Mockito.times(1)).findAll();
+
+    StepVerifier.create(animeCatalogBodyCache.get("1-0-1").map(EncodedCatalog::version))
+        .expectSubscription()
+        .expectNext("1-0-1")
+        .verifyComplete();
+
+    BDDMockito.verify(animeRepositoryMock, Mockito.times(2)).findAll();
+  }
+
+}
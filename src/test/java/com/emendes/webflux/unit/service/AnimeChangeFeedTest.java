@@ -0,0 +1,102 @@
+package com.emendes.webflux.unit.service;
+
+import com.emendes.webflux.domain.Anime;
+import com.emendes.webflux.domain.AnimeChangeEvent;
+import com.emendes.webflux.service.AnimeChangeFeed;
+import com.emendes.webflux.util.creator.AnimeCreator;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+
+@ExtendWith(SpringExtension.class)
+class AnimeChangeFeedTest {
+
+  private final AnimeChangeFeed animeChangeFeed = new AnimeChangeFeed(3, 2);
+  private final Anime anime = AnimeCreator.createValidAnime();
+
+  @Test
+  @DisplayName("changes streams only the events published after subscription when no sequence is given")
+  void changes_StreamsLiveEvents_WhenNoSequenceIsGiven() {
+    animeChangeFeed.created(anime);
+
+    StepVerifier.create(animeChangeFeed.changes(null).map(AnimeChangeEvent::getType).take(2))
+        .expectSubscription()
+        .then(() -> {
+          animeChangeFeed.updated(anime);
+          animeChangeFeed.deleted(anime.getId());
+        })
+        .expectNext(AnimeChangeEvent.Type.UPDATED, AnimeChangeEvent.Type.DELETED)
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("changes resumes after the given sequence from the retained history")
+  void changes_ResumesAfterSequence_WhenSequenceIsRetained() {
+    animeChangeFeed.created(anime);
+    long resumeAfter = currentSequence();
+    animeChangeFeed.updated(anime);
+    animeChangeFeed.deleted(anime.getId());
+
+    StepVerifier.create(animeChangeFeed.changes(resumeAfter).take(2))
+        .expectSubscription()
+        .assertNext(event -> {
+          Assertions.assertThat(event.getType()).isEqualTo(AnimeChangeEvent.Type.UPDATED);
+          Assertions.assertThat(event.getSequence()).isEqualTo(resumeAfter + 1);
+        })
+        .assertNext(event -> Assertions.assertThat(event.getType()).isEqualTo(AnimeChangeEvent.Type.DELETED))
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("changes starts with a RESET when the sequence is older than the retained history")
+  void changes_StartsWithReset_WhenSequenceIsNoLongerRetained() {
+    animeChangeFeed.created(anime);
+    long resumeAfter = currentSequence() - 1;
+    animeChangeFeed.createdAll(List.of(anime, anime, anime, anime));
+
+    StepVerifier.create(animeChangeFeed.changes(resumeAfter).take(1))
+        .expectSubscription()
+        .assertNext(event -> {
+          Assertions.assertThat(event.getType()).isEqualTo(AnimeChangeEvent.Type.RESET);
+          Assertions.assertThat(event.getSequence()).isEqualTo(resumeAfter + 5);
+        })
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("changes starts with a RESET when the sequence comes from a previous run")
+  void changes_StartsWithReset_WhenSequenceIsAhead() {
+    StepVerifier.create(animeChangeFeed.changes(Long.MAX_VALUE).take(1).map(AnimeChangeEvent::getType))
+        .expectSubscription()
+        .expectNext(AnimeChangeEvent.Type.RESET)
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("changes drops the oldest events of a subscriber that does not keep up")
+  void changes_DropsOldestEvents_WhenSubscriberFallsBehind() {
+    StepVerifier.create(animeChangeFeed.changes(null), 0)
+        .expectSubscription()
+        .then(() -> animeChangeFeed.createdAll(List.of(anime, anime, anime)))
+        .expectNoEvent(Duration.ofMillis(10))
+        .thenRequest(2)
+        .expectNextCount(2)
+        .thenCancel()
+        .verify();
+
+    Assertions.assertThat(animeChangeFeed.dropped()).isEqualTo(1);
+    Assertions.assertThat(animeChangeFeed.subscribers()).isZero();
+  }
+
+  // A sequence older than any run always gets a RESET carrying the current sequence
+  private long currentSequence() {
+    return animeChangeFeed.changes(0L).blockFirst().getSequence();
+  }
+
+}
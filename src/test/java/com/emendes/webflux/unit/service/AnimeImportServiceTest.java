@@ -0,0 +1,94 @@
+package com.emendes.webflux.unit.service;
+
+import com.emendes.webflux.domain.Anime;
+import com.emendes.webflux.domain.AnimeImportResult;
+import com.emendes.webflux.repository.AnimeRepository;
+import com.emendes.webflux.service.AnimeCache;
+import com.emendes.webflux.service.AnimeChangeFeed;
+import com.emendes.webflux.service.AnimeImportService;
+import com.emendes.webflux.service.AnimeSuggestionIndex;
+import com.emendes.webflux.util.creator.AnimeCreator;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyList;
+
+@ExtendWith(SpringExtension.class)
+class AnimeImportServiceTest {
+
+  @Mock
+  private AnimeRepository animeRepositoryMock;
+  @Mock
+  private AnimeSuggestionIndex animeSuggestionIndexMock;
+  @Mock
+  private AnimeChangeFeed animeChangeFeedMock;
+
+  private AnimeImportService animeImportService;
+
+  private final Anime anime = AnimeCreator.createValidAnime();
+
+  @BeforeEach
+  public void setUp() {
+    animeImportService = new AnimeImportService(animeRepositoryMock,
+        new AnimeCache(100, Duration.ofMinutes(1), Duration.ofSeconds(1), Duration.ofSeconds(1)),
+        animeSuggestionIndexMock, animeChangeFeedMock, 2);
+
+    BDDMockito.when(animeRepositoryMock.insertAll(anyList()))
+        .thenAnswer(invocation -> Flux.fromIterable(invocation.<List<Anime>>getArgument(0)).map(a -> anime));
+  }
+
+  @Test
+  @DisplayName("importAll returns one result per window when import successful")
+  void importAll_ReturnsOneResultPerWindow_WhenImportSuccessful() {
+    Anime animeToBeSaved = AnimeCreator.createAnimeToBeSaved();
+
+    StepVerifier.create(animeImportService.importAll(Flux.just(animeToBeSaved, animeToBeSaved, animeToBeSaved)))
+        .expectSubscription()
+        .expectNext(new AnimeImportResult(0, 2, List.of(), null))
+        .expectNext(new AnimeImportResult(1, 1, List.of(), null))
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("importAll reports invalid animes as failures and inserts the others")
+  void importAll_ReportsFailures_WhenAnimeContainsInvalidName() {
+    Anime animeToBeSaved = AnimeCreator.createAnimeToBeSaved();
+
+    StepVerifier.create(animeImportService.importAll(Flux.just(animeToBeSaved, animeToBeSaved.withName(""))))
+        .expectSubscription()
+        .assertNext(result -> {
+          Assertions.assertThat(result.getInserted()).isEqualTo(1);
+          Assertions.assertThat(result.getFailures())
+              .containsExactly(new AnimeImportResult.Failure(1, "Invalid name"));
+        })
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("importAll reports the window as rolled back and continues when the insert fails")
+  void importAll_ReportsRolledBackWindow_WhenInsertFails() {
+    Anime animeToBeSaved = AnimeCreator.createAnimeToBeSaved();
+    BDDMockito.when(animeRepositoryMock.insertAll(List.of(animeToBeSaved, animeToBeSaved)))
+        .thenReturn(Flux.error(new DataIntegrityViolationException("duplicate")));
+
+    StepVerifier.create(animeImportService.importAll(Flux.just(animeToBeSaved, animeToBeSaved, animeToBeSaved)))
+        .expectSubscription()
+        .expectNext(new AnimeImportResult(0, 0, List.of(), "Window rolled back"))
+        .expectNext(new AnimeImportResult(1, 1, List.of(), null))
+        .verifyComplete();
+  }
+
+}
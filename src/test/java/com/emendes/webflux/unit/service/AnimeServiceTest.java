@@ -2,22 +2,37 @@ package com.emendes.webflux.unit.service;
 
 import com.emendes.webflux.domain.Anime;
 import com.emendes.webflux.repository.AnimeRepository;
+import com.emendes.webflux.service.AnimeCache;
+import com.emendes.webflux.service.AnimeCatalogBodyCache;
+import com.emendes.webflux.service.AnimeChangeFeed;
+import com.emendes.webflux.service.AnimeNotFoundException;
+import com.emendes.webflux.service.AnimeReadCoalescer;
 import com.emendes.webflux.service.AnimeService;
+import com.emendes.webflux.service.AnimeSuggestionIndex;
 import com.emendes.webflux.util.creator.AnimeCreator;
+import com.emendes.webflux.warmup.WarmupWebFilter;
+import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
 import org.mockito.BDDMockito;
 import org.mockito.InjectMocks;
+import org.mockito.Mockito;
 import org.mockito.Mock;
+import org.mockito.Spy;
+import org.springframework.http.HttpStatus;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.stream.IntStream;
 
 import static org.mockito.ArgumentMatchers.*;
 
@@ -28,6 +43,16 @@ class AnimeServiceTest {
   private AnimeService animeService;
   @Mock
   private AnimeRepository animeRepositoryMock;
+  @Mock
+  private AnimeSuggestionIndex animeSuggestionIndexMock;
+  @Mock
+  private AnimeCatalogBodyCache animeCatalogBodyCacheMock;
+  @Spy
+  private AnimeReadCoalescer animeReadCoalescer = new AnimeReadCoalescer();
+  @Mock
+  private AnimeChangeFeed animeChangeFeedMock;
+  @Spy
+  private AnimeCache animeCache = new AnimeCache(100, Duration.ofMinutes(1), Duration.ofSeconds(1), Duration.ofSeconds(1));
 
   private final Anime anime = AnimeCreator.createValidAnime();
 
@@ -35,6 +60,8 @@ class AnimeServiceTest {
   public void setUp() {
     BDDMockito.when(animeRepositoryMock.findAll()).thenReturn(Flux.just(anime));
 
+    BDDMockito.when(animeRepositoryMock.findPageAfterId(anyInt(), anyInt())).thenReturn(Flux.just(anime));
+
     BDDMockito.when(animeRepositoryMock.findById(1)).thenReturn(Mono.just(anime));
 
     BDDMockito.when(animeRepositoryMock.findById(100)).thenReturn(Mono.empty());
@@ -42,10 +69,22 @@ class AnimeServiceTest {
     BDDMockito.when(animeRepositoryMock.save(any(Anime.class)))
         .thenReturn(Mono.just(anime));
 
-    BDDMockito.when(animeRepositoryMock.saveAll(List.of(AnimeCreator.createAnimeToBeSaved(), AnimeCreator.createAnimeToBeSaved())))
+    BDDMockito.when(animeRepositoryMock.insertAll(List.of(AnimeCreator.createAnimeToBeSaved(), AnimeCreator.createAnimeToBeSaved())))
         .thenReturn(Flux.just(anime, anime));
 
-    BDDMockito.when(animeRepositoryMock.deleteById(anyInt()))
+    BDDMockito.when(animeRepositoryMock.deleteAnimeById(anyInt()))
+        .thenReturn(Mono.just(1));
+
+    BDDMockito.when(animeRepositoryMock.deleteAnimeById(100))
+        .thenReturn(Mono.just(0));
+
+    BDDMockito.when(animeRepositoryMock.findCatalogVersion())
+        .thenReturn(Mono.just("1-0-1"));
+
+    BDDMockito.when(animeRepositoryMock.updateName(anyInt(), anyString()))
+        .thenReturn(Mono.just(AnimeCreator.createValidUpdatedAnime().withVersion(1)));
+
+    BDDMockito.when(animeRepositoryMock.updateName(eq(100), anyString()))
         .thenReturn(Mono.empty());
   }
 
@@ -58,6 +97,116 @@ class AnimeServiceTest {
         .verifyComplete();
   }
 
+  @Test
+  @DisplayName("findAll shares one repository query between concurrent callers")
+  void findAll_SharesOneQuery_WhenCalledConcurrently() {
+    Sinks.One<Anime> row = Sinks.one();
+    BDDMockito.when(animeRepositoryMock.findAll()).thenReturn(row.asMono().flux());
+
+    StepVerifier first = StepVerifier.create(animeService.findAll()).expectNext(anime).expectComplete().verifyLater();
+    StepVerifier second = StepVerifier.create(animeService.findAll()).expectNext(anime).expectComplete().verifyLater();
+    row.tryEmitValue(anime);
+
+    first.verify();
+    second.verify();
+
+    BDDMockito.verify(animeRepositoryMock, Mockito.times(1)).findAll();
+    Assertions.assertThat(animeReadCoalescer.catalog().coalesced()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("findCatalogVersion queries the repository once until a write invalidates it")
+  void findCatalogVersion_QueriesRepositoryOnce_UntilAWriteInvalidatesIt() {
+    StepVerifier.create(animeService.findCatalogVersion()
+            .then(animeService.findCatalogVersion())
+            .then(animeService.update(AnimeCreator.createValidUpdatedAnime()))
+            .then(animeService.findCatalogVersion()))
+        .expectSubscription()
+        .expectNext("1-0-1")
+        .verifyComplete();
+
+    BDDMockito.verify(animeRepositoryMock, Mockito.times(2)).findCatalogVersion();
+  }
+
+  @Test
+  @DisplayName("findPage returns a flux of Anime after the given id")
+  void findPage_ReturnsFluxOfAnime_WhenSuccessful() {
+    StepVerifier.create(animeService.findPage(null, 10))
+        .expectSubscription()
+        .expectNext(anime)
+        .verifyComplete();
+
+    BDDMockito.verify(animeRepositoryMock).findPageAfterId(0, 10);
+  }
+
+  @Test
+  @DisplayName("findPage clamps limit to MAX_PAGE_SIZE")
+  void findPage_ClampsLimit_WhenLimitIsGreaterThanMaxPageSize() {
+    StepVerifier.create(animeService.findPage(5, 10_000))
+        .expectSubscription()
+        .expectNext(anime)
+        .verifyComplete();
+
+    BDDMockito.verify(animeRepositoryMock).findPageAfterId(5, AnimeService.MAX_PAGE_SIZE);
+  }
+
+  @Test
+  @DisplayName("searchByPrefix turns the lower-cased prefix into a half-open name range")
+  void searchByPrefix_QueriesLowerCasedRange_WhenSuccessful() {
+    BDDMockito.when(animeRepositoryMock.searchByNamePrefix("tensei", "tensej", "", 0, 20))
+        .thenReturn(Flux.just(anime));
+
+    StepVerifier.create(animeService.searchByPrefix("Tensei", "", 0, 20))
+        .expectSubscription()
+        .expectNext(anime)
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("searchByPrefix skips the surrogate block when the prefix ends in U+D7FF")
+  void searchByPrefix_SkipsSurrogates_WhenPrefixEndsBeforeSurrogateBlock() {
+    BDDMockito.when(animeRepositoryMock.searchByNamePrefix("a\uD7FF", "a\uE000", "", 0, 20))
+        .thenReturn(Flux.just(anime));
+
+    StepVerifier.create(animeService.searchByPrefix("a\uD7FF", "", 0, 20))
+        .expectSubscription()
+        .expectNext(anime)
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("searchByPrefix carries past U+10FFFF, and leaves the range open when nothing is left")
+  void searchByPrefix_CarriesOrOpensRange_WhenPrefixEndsInMaxCodePoint() {
+    String maxCodePoint = Character.toString(Character.MAX_CODE_POINT);
+    BDDMockito.when(animeRepositoryMock.searchByNamePrefix("a" + maxCodePoint, "b", "", 0, 20))
+        .thenReturn(Flux.just(anime));
+    BDDMockito.when(animeRepositoryMock.searchByNamePrefix(eq(maxCodePoint), isNull(), eq(""), eq(0), eq(20)))
+        .thenReturn(Flux.just(anime));
+
+    StepVerifier.create(animeService.searchByPrefix("a" + maxCodePoint, "", 0, 20)
+            .concatWith(animeService.searchByPrefix(maxCodePoint, "", 0, 20)))
+        .expectSubscription()
+        .expectNext(anime, anime)
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("streamAll fetches the next chunk only when the current one is full")
+  void streamAll_FetchesNextChunk_WhenCurrentChunkIsFull() {
+    List<Anime> firstChunk = IntStream.rangeClosed(1, AnimeService.STREAM_CHUNK_SIZE)
+        .mapToObj(id -> anime.withId(id))
+        .toList();
+    BDDMockito.when(animeRepositoryMock.findPageAfterId(0, AnimeService.STREAM_CHUNK_SIZE))
+        .thenReturn(Flux.fromIterable(firstChunk));
+    BDDMockito.when(animeRepositoryMock.findPageAfterId(AnimeService.STREAM_CHUNK_SIZE, AnimeService.STREAM_CHUNK_SIZE))
+        .thenReturn(Flux.just(anime.withId(AnimeService.STREAM_CHUNK_SIZE + 1)));
+
+    StepVerifier.create(animeService.streamAll())
+        .expectSubscription()
+        .expectNextCount(AnimeService.STREAM_CHUNK_SIZE + 1L)
+        .verifyComplete();
+  }
+
   @Test
   @DisplayName("findById returns a mono of Anime when it exists")
   void findById_ReturnsMonoOfAnime_WhenItExists() {
@@ -71,9 +220,73 @@ class AnimeServiceTest {
   @DisplayName("findById returns a mono Error when anime does not exist")
   void findById_ReturnsMonoError_WhenAnimeDoesNotExist() {
     StepVerifier.create(animeService.findById(100))
+        .expectSubscription()
+        .expectErrorMatches(e -> e instanceof AnimeNotFoundException && e.getStackTrace().length == 0)
+        .verify();
+  }
+
+  @Test
+  @DisplayName("findById hits the repository only once when called repeatedly for the same id")
+  void findById_HitsRepositoryOnce_WhenCalledRepeatedly() {
+    StepVerifier.create(animeService.findById(1).then(animeService.findById(1)))
+        .expectSubscription()
+        .expectNext(anime)
+        .verifyComplete();
+
+    BDDMockito.verify(animeRepositoryMock, Mockito.times(1)).findById(1);
+    Assertions.assertThat(animeCache.stats().hitCount()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("findById loads through the cache with the warm-up mark of a warm-up request")
+  void findById_LoadsWithWarmupMark_WhenRequestIsWarmup() {
+    BDDMockito.when(animeRepositoryMock.findById(2)).thenReturn(Mono.deferContextual(context ->
+        Mono.just(anime.withId(2).withName(WarmupWebFilter.isWarmup(context) ? "warmup" : "request"))));
+
+    StepVerifier.create(WarmupWebFilter.warmup(animeService.findById(2)))
+        .expectSubscription()
+        .expectNextMatches(found -> found.getName().equals("warmup"))
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("findById caches the not found result for the negative TTL")
+  void findById_CachesNotFound_WhenAnimeDoesNotExist() {
+    StepVerifier.create(animeService.findById(100).onErrorResume(e -> animeService.findById(100)))
         .expectSubscription()
         .expectError(ResponseStatusException.class)
         .verify();
+
+    BDDMockito.verify(animeRepositoryMock, Mockito.times(1)).findById(100);
+  }
+
+  @Test
+  @DisplayName("save invalidates the cached entry of the saved anime")
+  void save_InvalidatesCachedEntry_WhenCreateSuccessful() {
+    StepVerifier.create(animeService.findById(1)
+            .then(animeService.save(AnimeCreator.createAnimeToBeSaved()))
+            .then(animeService.findById(1)))
+        .expectSubscription()
+        .expectNext(anime)
+        .verifyComplete();
+
+    BDDMockito.verify(animeRepositoryMock, Mockito.times(2)).findById(1);
+  }
+
+  @Test
+  @DisplayName("save, update and delete keep the suggestion index current")
+  void writes_UpdateSuggestionIndex_WhenSuccessful() {
+    Anime updatedAnime = AnimeCreator.createValidUpdatedAnime();
+
+    StepVerifier.create(animeService.save(AnimeCreator.createAnimeToBeSaved())
+            .then(animeService.update(updatedAnime))
+            .then(animeService.delete(1)))
+        .expectSubscription()
+        .verifyComplete();
+
+    BDDMockito.verify(animeSuggestionIndexMock).put(anime);
+    BDDMockito.verify(animeSuggestionIndexMock).put(updatedAnime.withVersion(1));
+    BDDMockito.verify(animeSuggestionIndexMock).remove(1);
   }
 
   @Test
@@ -87,6 +300,17 @@ class AnimeServiceTest {
         .verifyComplete();
   }
 
+  @Test
+  @DisplayName("save inserts with a generated id even when the body carries one")
+  void save_IgnoresClientId_WhenBodyCarriesId() {
+    StepVerifier.create(animeService.save(AnimeCreator.createValidAnime().withId(42).withVersion(7)))
+        .expectSubscription()
+        .expectNext(anime)
+        .verifyComplete();
+
+    BDDMockito.verify(animeRepositoryMock).save(AnimeCreator.createAnimeToBeSaved());
+  }
+
   @Test
   @DisplayName("saveAll returns Flux of Anime when create successful")
   void saveAll_ReturnsFluxOfAnime_WhenCreateSuccessful() {
@@ -96,21 +320,53 @@ class AnimeServiceTest {
         .expectSubscription()
         .expectNext(anime, anime)
         .verifyComplete();
+
+    BDDMockito.verify(animeSuggestionIndexMock).putAll(List.of(anime, anime));
+  }
+
+  @Test
+  @DisplayName("saveAll updates the index and the change feed only after the batch insert has committed")
+  void saveAll_PublishesSavedAnimes_AfterTransactionCommits() {
+    Anime animeToBeSaved = AnimeCreator.createAnimeToBeSaved();
+    BDDMockito.when(animeRepositoryMock.insertAll(List.of(animeToBeSaved, animeToBeSaved)))
+        .thenReturn(Flux.just(anime, anime)
+            .concatWith(Mono.fromRunnable(() -> Mockito.verifyNoInteractions(animeSuggestionIndexMock, animeChangeFeedMock))));
+
+    StepVerifier.create(animeService.saveAll(List.of(animeToBeSaved, animeToBeSaved)))
+        .expectSubscription()
+        .expectNext(anime, anime)
+        .verifyComplete();
+
+    BDDMockito.verify(animeSuggestionIndexMock).putAll(List.of(anime, anime));
+    BDDMockito.verify(animeChangeFeedMock).createdAll(List.of(anime, anime));
+  }
+
+  @Test
+  @DisplayName("saveAll leaves the index and the change feed untouched when the batch insert rolls back")
+  void saveAll_PublishesNothing_WhenTransactionRollsBack() {
+    Anime animeToBeSaved = AnimeCreator.createAnimeToBeSaved();
+    BDDMockito.when(animeRepositoryMock.insertAll(List.of(animeToBeSaved, animeToBeSaved)))
+        .thenReturn(Flux.just(anime, anime).concatWith(Mono.error(new IllegalStateException("commit failed"))));
+
+    StepVerifier.create(animeService.saveAll(List.of(animeToBeSaved, animeToBeSaved)))
+        .expectSubscription()
+        .expectError(IllegalStateException.class)
+        .verify();
+
+    Mockito.verifyNoInteractions(animeSuggestionIndexMock, animeChangeFeedMock);
   }
 
   @Test
   @DisplayName("saveAll returns Mono Error when anime on the list contains invalid fields")
   void saveAll_ReturnsMonoError_WhenAnimeOnTheListContainsInvalidFields() {
-    BDDMockito.when(animeRepositoryMock.saveAll(anyIterable()))
-        .thenReturn(Flux.just(anime, anime.withName("")));
-
     Anime animeToBeSaved = AnimeCreator.createAnimeToBeSaved();
 
     StepVerifier.create(animeService.saveAll(List.of(animeToBeSaved, animeToBeSaved.withName(""))))
         .expectSubscription()
-        .expectNext(anime)
         .expectError(ResponseStatusException.class)
         .verify();
+
+    BDDMockito.verify(animeRepositoryMock, Mockito.never()).insertAll(anyList());
   }
 
   @Test
@@ -119,31 +375,95 @@ class AnimeServiceTest {
     StepVerifier.create(animeService.delete(1))
         .expectSubscription()
         .verifyComplete();
+
+    BDDMockito.verify(animeRepositoryMock).deleteAnimeById(1);
+    BDDMockito.verify(animeChangeFeedMock).deleted(1);
+  }
+
+  @Test
+  @DisplayName("delete returns a mono Error when Anime does not exist")
+  void delete_ReturnsMonoError_WhenAnimeDoesNotExist() {
+    StepVerifier.create(animeService.delete(100))
+        .expectSubscription()
+        .expectErrorMatches(e -> e instanceof ResponseStatusException exception
+            && exception.getStatus() == HttpStatus.NOT_FOUND)
+        .verify();
+
+    BDDMockito.verifyNoInteractions(animeChangeFeedMock);
+  }
+
+  @Test
+  @DisplayName("delete with an expected version returns precondition failed when the anime was modified")
+  void delete_ReturnsPreconditionFailed_WhenExpectedVersionIsStale() {
+    BDDMockito.when(animeRepositoryMock.deleteAnimeByIdIfVersion(1, 2))
+        .thenReturn(Mono.just(0));
+
+    StepVerifier.create(animeService.delete(1, 2))
+        .expectSubscription()
+        .expectErrorMatches(e -> e instanceof ResponseStatusException exception
+            && exception.getStatus() == HttpStatus.PRECONDITION_FAILED)
+        .verify();
   }
 
   @Test
   @DisplayName("update returns a mono of Void when update successful")
   void update_ReturnsMonoOfAnime_WhenUpdateSuccessful() {
-    BDDMockito.when(animeRepositoryMock.save(any(Anime.class)))
-        .thenReturn(Mono.just(AnimeCreator.createValidUpdatedAnime()));
-
-    Anime animeToBeUpdated = AnimeCreator.createValidAnime();
+    Anime animeToBeUpdated = AnimeCreator.createValidUpdatedAnime();
 
     StepVerifier.create(animeService.update(animeToBeUpdated))
         .expectSubscription()
         .verifyComplete();
+
+    BDDMockito.verify(animeRepositoryMock).updateName(1, animeToBeUpdated.getName());
+    BDDMockito.verify(animeRepositoryMock, Mockito.never()).findById(anyInt());
+  }
+
+  @Test
+  @DisplayName("update publishes the row as stored, with the version the database assigned")
+  void update_PublishesStoredRow_WhenUpdateSuccessful() {
+    BDDMockito.when(animeRepositoryMock.updateNameIfVersion(1, "Tensei Shitara Slime Datta Ken 2", 3))
+        .thenReturn(Mono.just(AnimeCreator.createValidUpdatedAnime().withVersion(4)));
+
+    StepVerifier.create(animeService.update(AnimeCreator.createValidUpdatedAnime(), 3))
+        .expectSubscription()
+        .verifyComplete();
+
+    BDDMockito.verify(animeChangeFeedMock).updated(AnimeCreator.createValidUpdatedAnime().withVersion(4));
   }
 
   @Test
   @DisplayName("update returns a mono Error when Anime does not exist")
   void update_ReturnsMonoError_WhenAnimeDoesNotExist() {
-    BDDMockito.when(animeRepositoryMock.findById(anyInt())).thenReturn(Mono.empty());
-
-    Anime animeToBeUpdated = AnimeCreator.createValidAnime();
+    Anime animeToBeUpdated = AnimeCreator.createValidUpdatedAnime().withId(100);
 
     StepVerifier.create(animeService.update(animeToBeUpdated))
         .expectSubscription()
-        .expectError(ResponseStatusException.class)
+        .expectErrorMatches(e -> e instanceof ResponseStatusException exception
+            && exception.getStatus() == HttpStatus.NOT_FOUND)
+        .verify();
+  }
+
+  @Test
+  @DisplayName("update with an expected version returns a mono of Void when the version still matches")
+  void update_ReturnsMonoOfVoid_WhenExpectedVersionMatches() {
+    BDDMockito.when(animeRepositoryMock.updateNameIfVersion(1, "Tensei Shitara Slime Datta Ken 2", 3))
+        .thenReturn(Mono.just(AnimeCreator.createValidUpdatedAnime().withVersion(4)));
+
+    StepVerifier.create(animeService.update(AnimeCreator.createValidUpdatedAnime(), 3))
+        .expectSubscription()
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("update with an expected version returns precondition failed when the anime was modified")
+  void update_ReturnsPreconditionFailed_WhenExpectedVersionIsStale() {
+    BDDMockito.when(animeRepositoryMock.updateNameIfVersion(1, "Tensei Shitara Slime Datta Ken 2", 2))
+        .thenReturn(Mono.empty());
+
+    StepVerifier.create(animeService.update(AnimeCreator.createValidUpdatedAnime(), 2))
+        .expectSubscription()
+        .expectErrorMatches(e -> e instanceof ResponseStatusException exception
+            && exception.getStatus() == HttpStatus.PRECONDITION_FAILED)
         .verify();
   }
 
@@ -0,0 +1,127 @@
+package com.emendes.webflux.unit.service;
+
+import com.emendes.webflux.domain.Anime;
+import com.emendes.webflux.domain.AnimeSuggestion;
+import com.emendes.webflux.repository.AnimeRepository;
+import com.emendes.webflux.service.AnimeSuggestionIndex;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+
+@ExtendWith(SpringExtension.class)
+class AnimeSuggestionIndexTest {
+
+  @Mock
+  private AnimeRepository animeRepositoryMock;
+
+  private AnimeSuggestionIndex animeSuggestionIndex;
+
+  @BeforeEach
+  public void setUp() {
+    BDDMockito.when(animeRepositoryMock.findAll()).thenReturn(Flux.just(
+        new Anime(1, "Tensei Shitara Slime Datta Ken", 0),
+        new Anime(2, "Naruto", 0),
+        new Anime(3, "tengen toppa gurren lagann", 0),
+        new Anime(4, "Tensei Kenja no Isekai Life", 0)));
+
+    animeSuggestionIndex = new AnimeSuggestionIndex(animeRepositoryMock, Duration.ofSeconds(1));
+    StepVerifier.create(animeSuggestionIndex.load())
+        .expectSubscription()
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("suggest returns names starting with the prefix, ignoring case, in name order")
+  void suggest_ReturnsMatchingNamesInOrder_WhenPrefixMatches() {
+    Assertions.assertThat(animeSuggestionIndex.suggest("TEN", 10))
+        .extracting(AnimeSuggestion::getId)
+        .containsExactly(3, 4, 1);
+  }
+
+  @Test
+  @DisplayName("suggest returns at most limit suggestions")
+  void suggest_ReturnsAtMostLimit_WhenMoreNamesMatch() {
+    Assertions.assertThat(animeSuggestionIndex.suggest("tensei", 1))
+        .containsExactly(new AnimeSuggestion(4, "Tensei Kenja no Isekai Life"));
+  }
+
+  @Test
+  @DisplayName("suggest returns an empty list when no name matches")
+  void suggest_ReturnsEmptyList_WhenNoNameMatches() {
+    Assertions.assertThat(animeSuggestionIndex.suggest("zzz", 10)).isEmpty();
+  }
+
+  @Test
+  @DisplayName("put replaces the name of an existing anime and adds new ones")
+  void put_ReplacesExistingAndAddsNew_WhenCalled() {
+    animeSuggestionIndex.putAll(List.of(new Anime(2, "Tensura Nikki", 1), new Anime(5, "Nana", 0)));
+
+    Assertions.assertThat(animeSuggestionIndex.suggest("tens", 10))
+        .extracting(AnimeSuggestion::getId)
+        .containsExactly(4, 1, 2);
+    Assertions.assertThat(animeSuggestionIndex.suggest("na", 10))
+        .containsExactly(new AnimeSuggestion(5, "Nana"));
+    Assertions.assertThat(animeSuggestionIndex.size()).isEqualTo(5);
+  }
+
+  @Test
+  @DisplayName("load keeps puts and removes made while it runs over the loaded rows")
+  void load_KeepsWritesMadeDuringLoad_WhenWritesArriveBeforeItCompletes() {
+    Sinks.Many<Anime> rows = Sinks.many().unicast().onBackpressureBuffer();
+    BDDMockito.when(animeRepositoryMock.findAll()).thenReturn(rows.asFlux());
+
+    StepVerifier.create(animeSuggestionIndex.load())
+        .expectSubscription()
+        .then(() -> {
+          animeSuggestionIndex.put(new Anime(2, "Nanatsu no Taizai", 1));
+          animeSuggestionIndex.put(new Anime(6, "Natsume Yuujinchou", 0));
+          animeSuggestionIndex.remove(4);
+          rows.tryEmitNext(new Anime(2, "Naruto", 0));
+          rows.tryEmitNext(new Anime(4, "Tensei Kenja no Isekai Life", 0));
+          rows.tryEmitNext(new Anime(5, "Nana", 0));
+          rows.tryEmitComplete();
+        })
+        .verifyComplete();
+
+    Assertions.assertThat(animeSuggestionIndex.suggest("na", 10))
+        .containsExactly(
+            new AnimeSuggestion(5, "Nana"),
+            new AnimeSuggestion(2, "Nanatsu no Taizai"),
+            new AnimeSuggestion(6, "Natsume Yuujinchou"));
+    Assertions.assertThat(animeSuggestionIndex.suggest("tensei", 10)).isEmpty();
+    Assertions.assertThat(animeSuggestionIndex.size()).isEqualTo(3);
+  }
+
+  @Test
+  @DisplayName("remove drops the anime from the index")
+  void remove_DropsAnime_WhenCalled() {
+    animeSuggestionIndex.remove(1);
+
+    Assertions.assertThat(animeSuggestionIndex.suggest("tensei", 10))
+        .extracting(AnimeSuggestion::getId)
+        .containsExactly(4);
+    Assertions.assertThat(animeSuggestionIndex.size()).isEqualTo(3);
+  }
+
+  @Test
+  @DisplayName("estimatedBytes grows with the names held by the index")
+  void estimatedBytes_GrowsWithNames_WhenAnimeIsAdded() {
+    long before = animeSuggestionIndex.estimatedBytes();
+
+    animeSuggestionIndex.put(new Anime(5, "Shingeki no Kyojin", 0));
+
+    Assertions.assertThat(animeSuggestionIndex.estimatedBytes()).isGreaterThan(before);
+  }
+
+}
@@ -0,0 +1,110 @@
+package com.emendes.webflux.unit.service;
+
+import com.emendes.webflux.service.SingleFlight;
+import com.emendes.webflux.warmup.WarmupWebFilter;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+@ExtendWith(SpringExtension.class)
+class SingleFlightTest {
+
+  private final SingleFlight<Integer, String> singleFlight = new SingleFlight<>();
+  private final AtomicInteger loads = new AtomicInteger();
+  private final AtomicInteger cancellations = new AtomicInteger();
+
+  private Mono<String> load(Sinks.One<String> result) {
+    return result.asMono()
+        .doOnSubscribe(subscription -> loads.incrementAndGet())
+        .doOnCancel(cancellations::incrementAndGet);
+  }
+
+  @Test
+  @DisplayName("execute shares one load between concurrent callers for the same key")
+  void execute_SharesOneLoad_WhenCalledConcurrentlyForTheSameKey() {
+    Sinks.One<String> result = Sinks.one();
+
+    StepVerifier first = StepVerifier.create(singleFlight.execute(1, () -> load(result)))
+        .expectNext("anime").expectComplete().verifyLater();
+    StepVerifier second = StepVerifier.create(singleFlight.execute(1, () -> load(result)))
+        .expectNext("anime").expectComplete().verifyLater();
+    result.tryEmitValue("anime");
+
+    first.verify();
+    second.verify();
+    Assertions.assertThat(loads).hasValue(1);
+    Assertions.assertThat(singleFlight.executed()).isEqualTo(1);
+    Assertions.assertThat(singleFlight.coalesced()).isEqualTo(1);
+    Assertions.assertThat(singleFlight.inFlight()).isZero();
+  }
+
+  @Test
+  @DisplayName("execute starts a new load once the previous one has completed")
+  void execute_StartsNewLoad_WhenPreviousLoadCompleted() {
+    StepVerifier.create(singleFlight.execute(1, () -> Mono.just("first"))).expectNext("first").verifyComplete();
+    StepVerifier.create(singleFlight.execute(1, () -> Mono.just("second"))).expectNext("second").verifyComplete();
+
+    Assertions.assertThat(singleFlight.executed()).isEqualTo(2);
+    Assertions.assertThat(singleFlight.coalesced()).isZero();
+  }
+
+  @Test
+  @DisplayName("execute shares the error with joined callers and does not keep the failed load")
+  void execute_DoesNotKeepFailedLoad_WhenLoadFails() {
+    Sinks.One<String> result = Sinks.one();
+
+    StepVerifier first = StepVerifier.create(singleFlight.execute(1, () -> load(result)))
+        .expectError(IllegalStateException.class).verifyLater();
+    StepVerifier second = StepVerifier.create(singleFlight.execute(1, () -> load(result)))
+        .expectError(IllegalStateException.class).verifyLater();
+    result.tryEmitError(new IllegalStateException("boom"));
+
+    first.verify();
+    second.verify();
+    Assertions.assertThat(singleFlight.inFlight()).isZero();
+    StepVerifier.create(singleFlight.execute(1, () -> Mono.just("anime"))).expectNext("anime").verifyComplete();
+  }
+
+  @Test
+  @DisplayName("execute cancels the load only when every caller has cancelled")
+  void execute_CancelsLoad_WhenEveryCallerCancelled() {
+    Sinks.One<String> result = Sinks.one();
+
+    Disposable first = singleFlight.execute(1, () -> load(result)).subscribe();
+    Disposable second = singleFlight.execute(1, () -> load(result)).subscribe();
+
+    first.dispose();
+    Assertions.assertThat(cancellations).hasValue(0);
+    Assertions.assertThat(singleFlight.inFlight()).isEqualTo(1);
+
+    second.dispose();
+    Assertions.assertThat(cancellations).hasValue(1);
+    Assertions.assertThat(singleFlight.inFlight()).isZero();
+  }
+
+  @Test
+  @DisplayName("execute still shares loads with warm-up callers but does not count them")
+  void execute_DoesNotCount_WhenCallerIsWarmup() {
+    Sinks.One<String> result = Sinks.one();
+
+    StepVerifier first = StepVerifier.create(singleFlight.execute(1, () -> load(result)))
+        .expectNext("anime").expectComplete().verifyLater();
+    StepVerifier warmup = StepVerifier.create(WarmupWebFilter.warmup(singleFlight.execute(1, () -> load(result))))
+        .expectNext("anime").expectComplete().verifyLater();
+    result.tryEmitValue("anime");
+
+    first.verify();
+    warmup.verify();
+    Assertions.assertThat(loads).hasValue(1);
+    Assertions.assertThat(singleFlight.executed()).isEqualTo(1);
+    Assertions.assertThat(singleFlight.coalesced()).isZero();
+  }
+}
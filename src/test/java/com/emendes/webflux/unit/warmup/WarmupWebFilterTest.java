@@ -0,0 +1,47 @@
+package com.emendes.webflux.unit.warmup;
+
+import com.emendes.webflux.warmup.WarmupWebFilter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+class WarmupWebFilterTest {
+
+  private final WarmupWebFilter warmupWebFilter = new WarmupWebFilter();
+
+  @Test
+  @DisplayName("filter marks the exchange and the Reactor context as warm-up traffic when it carries the process token")
+  void filter_MarksExchange_WhenTokenMatches() {
+    MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/animes")
+        .header(WarmupWebFilter.TOKEN_HEADER, warmupWebFilter.token()));
+    AtomicBoolean warmupContext = new AtomicBoolean();
+
+    StepVerifier.create(warmupWebFilter.filter(exchange, filteredExchange -> Mono.deferContextual(context -> {
+          warmupContext.set(WarmupWebFilter.isWarmup(context));
+          return Mono.empty();
+        })))
+        .verifyComplete();
+
+    Assertions.assertTrue(WarmupWebFilter.isWarmup(exchange));
+    Assertions.assertTrue(warmupContext.get());
+  }
+
+  @Test
+  @DisplayName("filter leaves the exchange unmarked when the token does not match")
+  void filter_LeavesExchangeUnmarked_WhenTokenDoesNotMatch() {
+    MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/animes")
+        .header(WarmupWebFilter.TOKEN_HEADER, "guessed"));
+
+    StepVerifier.create(warmupWebFilter.filter(exchange, filteredExchange -> Mono.empty()))
+        .verifyComplete();
+
+    Assertions.assertFalse(WarmupWebFilter.isWarmup(exchange));
+  }
+
+}
@@ -0,0 +1,4 @@
+CREATE TABLE IF NOT EXISTS t_anime (
+    id INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(255) NOT NULL
+);
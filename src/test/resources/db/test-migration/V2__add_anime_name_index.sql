@@ -0,0 +1 @@
+CREATE INDEX IF NOT EXISTS idx_anime_name ON t_anime (name);